@@ -0,0 +1,177 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.benchmarks;
+
+import fr.andross.banitem.BanDatabase;
+import fr.andross.banitem.BanItem;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A MockBukkit server running BanItem, shared by the benchmarks.
+ * <p>The configuration is loaded like a <i>/bi load</i>, and the asynchronous database build
+ * is waited before returning.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class BenchmarkServer {
+    private final ServerMock server;
+    private final WorldMock world;
+    private final BanItem plugin;
+
+    private BenchmarkServer(@NotNull final String worldName) {
+        server = MockBukkit.mock();
+        world = server.addSimpleWorld(worldName);
+        plugin = MockBukkit.load(BanItem.class);
+    }
+
+    /**
+     * Start a mocked server with BanItem enabled, and a world named <i>world</i>.
+     *
+     * @return the benchmark server
+     */
+    @NotNull
+    public static BenchmarkServer start() {
+        return start("world");
+    }
+
+    /**
+     * Start a mocked server with BanItem enabled.
+     *
+     * @param worldName the name of the world where the players are added
+     * @return the benchmark server
+     */
+    @NotNull
+    public static BenchmarkServer start(@NotNull final String worldName) {
+        return new BenchmarkServer(worldName);
+    }
+
+    /**
+     * Get the default configuration of the plugin, to be edited by the benchmarks.
+     *
+     * @return a copy of the default config.yml
+     */
+    @NotNull
+    public YamlConfiguration defaultConfig() {
+        try (final InputStream is = plugin.getResource("config.yml")) {
+            if (is == null) {
+                throw new IllegalStateException("No default config.yml");
+            }
+            try (final Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                final YamlConfiguration config = YamlConfiguration.loadConfiguration(reader);
+                config.set("check-update", false);
+                return config;
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Load this configuration, and wait until the new database is enforced.
+     *
+     * @param config      the configuration
+     * @param customItems the custom items, or null for none
+     */
+    public void load(@NotNull final YamlConfiguration config, @Nullable final YamlConfiguration customItems) {
+        final File folder = plugin.getDataFolder();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IllegalStateException("Can not create " + folder);
+        }
+        final File file = new File(folder, "benchmark.yml");
+        try {
+            (customItems == null ? new YamlConfiguration() : customItems).save(new File(folder, "customitems.yml"));
+            config.save(file);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final BanDatabase previous = plugin.getBanDatabase();
+        plugin.load(server.getConsoleSender(), file);
+        // The files are read and the verdicts compiled off the main thread
+        for (int i = 0; i < 200 && plugin.getBanDatabase() == previous; i++) {
+            server.getScheduler().waitAsyncTasksFinished();
+            server.getScheduler().performOneTick();
+        }
+        if (plugin.getBanDatabase() == previous) {
+            throw new IllegalStateException("BanItem did not load " + file);
+        }
+    }
+
+    /**
+     * Add a player in the benchmark world.
+     *
+     * @return the new player
+     */
+    @NotNull
+    public PlayerMock addPlayer() {
+        final PlayerMock player = server.addPlayer();
+        player.teleport(world.getSpawnLocation());
+        return player;
+    }
+
+    /**
+     * Stop the mocked server.
+     */
+    public void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Get the mocked server.
+     *
+     * @return the mocked server
+     */
+    @NotNull
+    public ServerMock getServer() {
+        return server;
+    }
+
+    /**
+     * Get the benchmark world.
+     *
+     * @return the benchmark world
+     */
+    @NotNull
+    public WorldMock getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the ban item plugin instance.
+     *
+     * @return the ban item plugin instance
+     */
+    @NotNull
+    public BanItem getPlugin() {
+        return plugin;
+    }
+}
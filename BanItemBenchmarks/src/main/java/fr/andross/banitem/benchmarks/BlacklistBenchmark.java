@@ -0,0 +1,117 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.benchmarks;
+
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.database.Blacklist;
+import fr.andross.banitem.items.BannedItem;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Blacklist#isBlacklisted(org.bukkit.entity.Player, org.bukkit.Location, BannedItem, boolean, BanAction, fr.andross.banitem.actions.BanData...)}
+ * with combinations of ban data.
+ * <p>The region data uses the native regions, PlaceholderAPI conditions are not benchmarked.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlacklistBenchmark {
+    /**
+     * The data of the ban, separated by '+'.
+     */
+    @Param({"none", "message", "gamemode", "permission", "region", "cooldown", "log", "run",
+            "gamemode+permission", "gamemode+region+permission", "message+log+run",
+            "gamemode+region+cooldown+permission+message"})
+    public String data;
+
+    private BenchmarkServer server;
+    private Blacklist blacklist;
+    private PlayerMock player;
+    private BannedItem banned;
+    private BannedItem notBanned;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        final YamlConfiguration config = server.defaultConfig();
+        config.set("regions.spawn.world", "world");
+        config.set("regions.spawn.pos1", "-1000 -64 -1000");
+        config.set("regions.spawn.pos2", "1000 320 1000");
+
+        final String path = "blacklist.world.stone.place";
+        config.createSection(path);
+        for (final String type : data.split("\\+")) {
+            switch (type) {
+                case "none": break;
+                case "message": config.set(path + ".message", "&cYou can not place stone."); break;
+                case "gamemode": config.set(path + ".gamemode", "survival"); break;
+                case "permission": config.set(path + ".permission", "benchmark.bypass"); break;
+                case "region": config.set(path + ".region", "spawn"); break;
+                case "cooldown": config.set(path + ".cooldown", 60000); break;
+                case "log": config.set(path + ".log", true); break;
+                case "run": config.set(path + ".run", Collections.singletonList("say {player} placed {itemname}")); break;
+                default: throw new IllegalArgumentException("Unknown data " + type);
+            }
+        }
+        server.load(config, null);
+        blacklist = server.getPlugin().getBanDatabase().getBlacklist();
+
+        player = server.addPlayer();
+        player.setGameMode(GameMode.SURVIVAL);
+        banned = new BannedItem(Material.STONE);
+        notBanned = new BannedItem(Material.DIRT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * The item is banned for this action.
+     *
+     * @return the check result
+     */
+    @Benchmark
+    public boolean banned() {
+        return blacklist.isBlacklisted(player, null, banned, true, BanAction.PLACE);
+    }
+
+    /**
+     * The item is not blacklisted.
+     *
+     * @return the check result
+     */
+    @Benchmark
+    public boolean notBanned() {
+        return blacklist.isBlacklisted(player, null, notBanned, true, BanAction.PLACE);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.benchmarks;
+
+import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.CustomBannedItem;
+import fr.andross.banitem.items.meta.MetaType;
+import fr.andross.banitem.utils.debug.Debug;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CustomBannedItem#matches(BannedItem)} for each meta type.
+ * The meta types relying on another plugin <i>(AdvancedEnchantments, ItemsAdder, NBTAPI)</i>
+ * and the attributes are not benchmarked.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomItemMatchBenchmark {
+    @Param({"DISPLAYNAME_CONTAINS", "DISPLAYNAME_EQUALS", "DISPLAYNAME_EQUALS_REGEX", "DURABILITY",
+            "ENCHANTMENT_CONTAINS", "ENCHANTMENT_EQUALS", "LORE_CONTAINS", "LORE_CONTAINS_REGEX",
+            "LORE_EQUALS", "LORE_LINE_CONTAINS", "MODELDATA_EQUALS", "POTION", "UNBREAKABLE"})
+    public MetaType type;
+
+    private BenchmarkServer server;
+    private CustomBannedItem customItem;
+    private BannedItem matching;
+    private BannedItem notMatching;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.load(server.defaultConfig(), null);
+
+        final ConfigurationSection section = new YamlConfiguration().createSection("benchmark");
+        section.set("material", type == MetaType.POTION ? "potion" : "diamond_sword");
+        section.set(type.name().toLowerCase().replace('_', '-'), getValue(type));
+        customItem = new CustomBannedItem("benchmark", section, new Debug(server.getPlugin().getBanConfig(), server.getServer().getConsoleSender()));
+        if (!customItem.isValid()) {
+            throw new IllegalStateException("Invalid custom item for " + type);
+        }
+
+        matching = new BannedItem(type == MetaType.POTION ? potion() : sword());
+        notMatching = new BannedItem(new ItemStack(type == MetaType.POTION ? Material.POTION : Material.DIAMOND_SWORD));
+    }
+
+    private static Object getValue(final MetaType type) {
+        switch (type) {
+            case DISPLAYNAME_CONTAINS: return "Banned";
+            case DISPLAYNAME_EQUALS: return "&6Banned sword";
+            case DISPLAYNAME_EQUALS_REGEX: return ".*Banned.*";
+            case DURABILITY: return "5-10";
+            case ENCHANTMENT_CONTAINS: return "sharpness";
+            case ENCHANTMENT_EQUALS: return "sharpness:5";
+            case LORE_CONTAINS: return "forbidden";
+            case LORE_CONTAINS_REGEX: return ".*forbid.*";
+            case LORE_EQUALS: return Arrays.asList("First line", "This item is forbidden");
+            case LORE_LINE_CONTAINS: return "forbidden";
+            case MODELDATA_EQUALS: return 42;
+            case POTION: return "speed:2";
+            case UNBREAKABLE: return true;
+            default: throw new IllegalArgumentException("Meta type " + type + " is not benchmarked");
+        }
+    }
+
+    private static ItemStack sword() {
+        final ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+        final ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName("§6Banned sword");
+        meta.setLore(Arrays.asList("First line", "This item is forbidden"));
+        meta.addEnchant(Enchantment.SHARPNESS, 5, true);
+        meta.setCustomModelData(42);
+        meta.setUnbreakable(true);
+        ((Damageable) meta).setDamage(7);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    private static ItemStack potion() {
+        final ItemStack item = new ItemStack(Material.POTION);
+        final PotionMeta meta = (PotionMeta) item.getItemMeta();
+        meta.addCustomEffect(new PotionEffect(PotionEffectType.SPEED, 200, 1), true);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * The item has the meta.
+     *
+     * @return true
+     */
+    @Benchmark
+    public boolean matching() {
+        return customItem.matches(matching);
+    }
+
+    /**
+     * The item does not have any meta.
+     *
+     * @return false
+     */
+    @Benchmark
+    public boolean notMatching() {
+        return customItem.matches(notMatching);
+    }
+}
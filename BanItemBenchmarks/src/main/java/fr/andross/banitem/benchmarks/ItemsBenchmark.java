@@ -0,0 +1,122 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.benchmarks;
+
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.actions.BanActionData;
+import fr.andross.banitem.database.items.Items;
+import fr.andross.banitem.items.BannedItem;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Items#get(BannedItem)} with a growing amount of custom items.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemsBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int customItems;
+
+    @Param({"0", "1000"})
+    public int matchCache;
+
+    private BenchmarkServer server;
+    private Items items;
+    private BannedItem lastCustomItem;
+    private BannedItem notCustomItem;
+    private BannedItem plainItem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+
+        // Custom items, all diamond swords with a different name
+        final YamlConfiguration custom = new YamlConfiguration();
+        final YamlConfiguration config = server.defaultConfig();
+        config.set("custom-items-cache.max-size", matchCache);
+        for (int i = 0; i < customItems; i++) {
+            custom.set("sword" + i + ".material", "diamond_sword");
+            custom.set("sword" + i + ".displayname-equals", "&6Sword " + i);
+            config.set("blacklist.world.sword" + i + ".place", "&cBanned sword.");
+        }
+        config.set("blacklist.world.stone.place", "&cBanned stone.");
+        server.load(config, custom);
+        items = server.getPlugin().getBanDatabase().getBlacklist().get(server.getWorld());
+
+        lastCustomItem = new BannedItem(named("§6Sword " + (customItems - 1)));
+        notCustomItem = new BannedItem(named("§6Another sword"));
+        plainItem = new BannedItem(new ItemStack(Material.STONE));
+    }
+
+    private static ItemStack named(final String name) {
+        final ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+        final ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * The last custom item declared matches.
+     *
+     * @return the actions found
+     */
+    @Benchmark
+    public Map<BanAction, BanActionData> lastCustomItem() {
+        return items.get(lastCustomItem);
+    }
+
+    /**
+     * Same material as the custom items, but none matches.
+     *
+     * @return the actions found
+     */
+    @Benchmark
+    public Map<BanAction, BanActionData> notCustomItem() {
+        return items.get(notCustomItem);
+    }
+
+    /**
+     * A material without any custom item.
+     *
+     * @return the actions found
+     */
+    @Benchmark
+    public Map<BanAction, BanActionData> plainItem() {
+        return items.get(plainItem);
+    }
+}
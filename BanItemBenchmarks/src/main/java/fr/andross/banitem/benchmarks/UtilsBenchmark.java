@@ -0,0 +1,148 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.benchmarks;
+
+import fr.andross.banitem.BanUtils;
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.utils.Chat;
+import fr.andross.banitem.utils.list.ListType;
+import fr.andross.banitem.utils.list.Listable;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the utilities used on every check or every load:
+ * {@link BanUtils#hasPermission}, {@link Chat#color(String)} and the {@link Listable} selectors expansion.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+    private BenchmarkServer server;
+    private BanUtils utils;
+    private PlayerMock player;
+    private PlayerMock bypassPlayer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.load(server.defaultConfig(), null);
+        server.getServer().addSimpleWorld("world_nether");
+        server.getServer().addSimpleWorld("world_the_end");
+        utils = server.getPlugin().getUtils();
+        player = server.addPlayer();
+        bypassPlayer = server.addPlayer();
+        bypassPlayer.addAttachment(server.getPlugin(), "banitem.bypass.world.stone.place", true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * A player without any bypass permission.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public boolean hasPermissionWithout() {
+        return utils.hasPermission(player, "stone", BanAction.PLACE);
+    }
+
+    /**
+     * A player with the bypass permission of the item.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public boolean hasPermissionBypass() {
+        return utils.hasPermission(bypassPlayer, "stone", BanAction.PLACE);
+    }
+
+    /**
+     * A message with legacy color codes.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String colorLegacy() {
+        return Chat.color("&c&l[&e&lBanItem&c&l] &cYou can not use &e{itemname}&c here.");
+    }
+
+    /**
+     * A message with hex colors.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public String colorHex() {
+        return Chat.color("&#ff5555You can not use &#ffff55this item&#ff5555 here.");
+    }
+
+    /**
+     * Materials matching a regex.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public List<Material> materialsRegex() {
+        return Listable.getMaterials("#_BED", null);
+    }
+
+    /**
+     * All materials except some.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public List<Material> materialsAllExcept() {
+        return Listable.getMaterials("*, !stone, !dirt", null);
+    }
+
+    /**
+     * All worlds except one.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public List<World> worldsAllExcept() {
+        return Listable.getWorlds("*, !world_the_end", null);
+    }
+
+    /**
+     * All actions except some.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public List<BanAction> actionsAllExcept() {
+        return Listable.getList(ListType.ACTION, "*, !place, !break", null);
+    }
+}
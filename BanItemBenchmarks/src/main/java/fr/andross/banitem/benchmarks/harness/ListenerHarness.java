@@ -0,0 +1,308 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.benchmarks.harness;
+
+import com.sun.management.ThreadMXBean;
+import fr.andross.banitem.benchmarks.BenchmarkServer;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.*;
+import org.bukkit.event.player.*;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * End to end throughput harness: BanItem is loaded on a MockBukkit server with a given configuration,
+ * and streams of events are fired for synthetic players through the plugin manager,
+ * so every listener registered by {@link fr.andross.banitem.BanListener#load} runs.
+ * <p>The event creation is not measured. For each event type, the harness reports the handlers throughput,
+ * the p50/p99 latency of the handlers and the bytes allocated per event.</p>
+ * <p>Usage: <i>java -cp benchmarks.jar fr.andross.banitem.benchmarks.harness.ListenerHarness [--option value]...</i>
+ * <ul>
+ *     <li>config: the config.yml to load <i>(default: the default config, with a sample blacklist)</i></li>
+ *     <li>customitems: the customitems.yml to load <i>(default: none)</i></li>
+ *     <li>world: the world of the players <i>(default: world)</i></li>
+ *     <li>players: the amount of players <i>(default: 100)</i></li>
+ *     <li>events: the amount of measured events <i>(default: 200000)</i></li>
+ *     <li>warmup: the amount of events fired before measuring <i>(default: 50000)</i></li>
+ *     <li>mix: the weight of each event type <i>(default: click=30,interact=20,pickup=15,move=10,place=8,break=7,drop=5,held=5)</i></li>
+ *     <li>items: the materials used, picked randomly <i>(default: stone,dirt,diamond_sword,ender_pearl,tnt)</i></li>
+ *     <li>tick: the amount of events between two server ticks <i>(default: 1000)</i></li>
+ *     <li>seed: the random seed <i>(default: 42)</i></li>
+ * </ul>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class ListenerHarness {
+    private final BenchmarkServer server;
+    private final List<PlayerMock> players = new ArrayList<>();
+    private final Inventory hopper;
+    private final Inventory chest;
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A type of event fired by the harness.
+     */
+    private enum EventType {
+        CLICK("click", (h, p, item) -> {
+            p.getInventory().setItem(0, item);
+            return new InventoryClickEvent(p.getOpenInventory(), InventoryType.SlotType.QUICKBAR, 36, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        }),
+        INTERACT("interact", (h, p, item) -> {
+            p.getInventory().setItemInMainHand(item);
+            return new PlayerInteractEvent(p, Action.RIGHT_CLICK_AIR, item, null, BlockFace.SELF, EquipmentSlot.HAND);
+        }),
+        PICKUP("pickup", (h, p, item) -> new EntityPickupItemEvent(p, p.getWorld().dropItem(p.getLocation(), item), 0)),
+        MOVE("move", (h, p, item) -> new InventoryMoveItemEvent(h.hopper, item, h.chest, true)),
+        PLACE("place", (h, p, item) -> {
+            p.getInventory().setItemInMainHand(item);
+            final Block block = p.getLocation().getBlock().getRelative(BlockFace.NORTH);
+            return new BlockPlaceEvent(block, block.getState(), block.getRelative(BlockFace.DOWN), item, p, true, EquipmentSlot.HAND);
+        }),
+        BREAK("break", (h, p, item) -> {
+            final Block block = p.getLocation().getBlock().getRelative(BlockFace.NORTH);
+            block.setType(item.getType().isBlock() ? item.getType() : Material.STONE);
+            return new BlockBreakEvent(block, p);
+        }),
+        DROP("drop", (h, p, item) -> new PlayerDropItemEvent(p, p.getWorld().dropItem(p.getLocation(), item))),
+        HELD("held", (h, p, item) -> {
+            p.getInventory().setItem(1, item);
+            return new PlayerItemHeldEvent(p, 0, 1);
+        });
+
+        private final String name;
+        private final EventFactory factory;
+
+        EventType(@NotNull final String name, @NotNull final EventFactory factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        @Nullable
+        private static EventType fromName(@NotNull final String name) {
+            for (final EventType type : values()) {
+                if (type.name.equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Creates an event for a player and an item.
+     */
+    @FunctionalInterface
+    private interface EventFactory {
+        @NotNull
+        Event create(@NotNull ListenerHarness harness, @NotNull PlayerMock player, @NotNull ItemStack item);
+    }
+
+    /**
+     * The measures of an event type.
+     */
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long allocated;
+        private long cancelled;
+
+        private void add(final long nanos, final long bytes, final boolean isCancelled) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            allocated += bytes;
+            if (isCancelled) {
+                cancelled++;
+            }
+        }
+    }
+
+    private ListenerHarness(@NotNull final BenchmarkServer server, final int players) {
+        this.server = server;
+        for (int i = 0; i < players; i++) {
+            this.players.add(server.addPlayer());
+        }
+        hopper = server.getServer().createInventory(null, InventoryType.HOPPER);
+        chest = server.getServer().createInventory(null, InventoryType.CHEST);
+        if (threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Run the harness.
+     *
+     * @param args the options, as <i>--option value</i>
+     */
+    public static void main(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", "").toLowerCase(Locale.ROOT), args[i + 1]);
+        }
+
+        final String world = options.getOrDefault("world", "world");
+        final int playerCount = Integer.parseInt(options.getOrDefault("players", "100"));
+        final int events = Integer.parseInt(options.getOrDefault("events", "200000"));
+        final int warmup = Integer.parseInt(options.getOrDefault("warmup", "50000"));
+        final int tick = Math.max(1, Integer.parseInt(options.getOrDefault("tick", "1000")));
+        final Random random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+
+        // Event mix, as a cumulative weights table
+        final List<EventType> mix = new ArrayList<>();
+        for (final String entry : options.getOrDefault("mix", "click=30,interact=20,pickup=15,move=10,place=8,break=7,drop=5,held=5").split(",")) {
+            final String[] split = entry.trim().split("=");
+            final EventType type = EventType.fromName(split[0]);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown event type '" + split[0] + "', available: " + Arrays.toString(EventType.values()));
+            }
+            for (int i = split.length > 1 ? Integer.parseInt(split[1]) : 1; i > 0; i--) {
+                mix.add(type);
+            }
+        }
+        final List<Material> items = new ArrayList<>();
+        for (final String name : options.getOrDefault("items", "stone,dirt,diamond_sword,ender_pearl,tnt").split(",")) {
+            final Material material = Material.matchMaterial(name.trim());
+            if (material == null) {
+                throw new IllegalArgumentException("Unknown material '" + name + "'");
+            }
+            items.add(material);
+        }
+
+        // Loading
+        final BenchmarkServer server = BenchmarkServer.start(world);
+        try {
+            final YamlConfiguration config;
+            if (options.containsKey("config")) {
+                config = YamlConfiguration.loadConfiguration(new File(options.get("config")));
+            } else {
+                config = server.defaultConfig();
+                config.set("blacklist." + world + ".ender_pearl, tnt.use, pickup, drop, place, break, inventoryclick, hold, transfer", "&cThis item is banned.");
+                config.set("blacklist." + world + ".diamond_sword.inventoryclick, hold.gamemode", "creative");
+            }
+            final YamlConfiguration customItems = options.containsKey("customitems") ? YamlConfiguration.loadConfiguration(new File(options.get("customitems"))) : null;
+            server.load(config, customItems);
+
+            final ListenerHarness harness = new ListenerHarness(server, playerCount);
+            System.out.println("Listeners activated: " + server.getPlugin().getListener().getActivated());
+
+            // Warming up, then measuring
+            harness.run(warmup, mix, items, random, tick, null);
+            final Map<EventType, Result> results = new EnumMap<>(EventType.class);
+            final long start = System.nanoTime();
+            harness.run(events, mix, items, random, tick, results);
+            final long elapsed = System.nanoTime() - start;
+            print(results, events, elapsed);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Fire a stream of events.
+     *
+     * @param events  the amount of events
+     * @param mix     the weighted event types
+     * @param items   the materials used
+     * @param random  the random
+     * @param tick    the amount of events between two server ticks
+     * @param results the results to fill, or null to not measure
+     */
+    private void run(final int events, @NotNull final List<EventType> mix, @NotNull final List<Material> items,
+                     @NotNull final Random random, final int tick, @Nullable final Map<EventType, Result> results) {
+        final long thread = Thread.currentThread().getId();
+        for (int i = 0; i < events; i++) {
+            final EventType type = mix.get(random.nextInt(mix.size()));
+            final PlayerMock player = players.get(random.nextInt(players.size()));
+            final Event event = type.factory.create(this, player, new ItemStack(items.get(random.nextInt(items.size()))));
+
+            // Measuring the handlers only
+            final long bytes = threads.getThreadAllocatedBytes(thread);
+            final long start = System.nanoTime();
+            server.getServer().getPluginManager().callEvent(event);
+            final long nanos = System.nanoTime() - start;
+            final long allocated = threads.getThreadAllocatedBytes(thread) - bytes;
+            if (results != null) {
+                results.computeIfAbsent(type, k -> new Result()).add(nanos, allocated, event instanceof Cancellable && ((Cancellable) event).isCancelled());
+            }
+
+            // Cleaning the dropped items
+            if (event instanceof EntityPickupItemEvent) {
+                ((EntityPickupItemEvent) event).getItem().remove();
+            } else if (event instanceof PlayerDropItemEvent) {
+                ((PlayerDropItemEvent) event).getItemDrop().remove();
+            }
+
+            // Running the tasks scheduled by the handlers, as the server would
+            if ((i + 1) % tick == 0) {
+                server.getServer().getScheduler().performOneTick();
+            }
+        }
+    }
+
+    /**
+     * Print the results.
+     *
+     * @param results the results per event type
+     * @param events  the amount of events fired
+     * @param elapsed the total time elapsed, including the events creation, in nanoseconds
+     */
+    private static void print(@NotNull final Map<EventType, Result> results, final int events, final long elapsed) {
+        System.out.printf("%n%-10s %10s %10s %14s %10s %10s %14s%n", "event", "count", "cancelled", "events/s", "p50 (µs)", "p99 (µs)", "alloc/event");
+        for (final Map.Entry<EventType, Result> e : results.entrySet()) {
+            final Result r = e.getValue();
+            final long[] sorted = Arrays.copyOf(r.latencies, r.count);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (final long nanos : sorted) {
+                total += nanos;
+            }
+            System.out.printf("%-10s %10d %10d %14.0f %10.2f %10.2f %12d B%n",
+                    e.getKey().name,
+                    r.count,
+                    r.cancelled,
+                    total == 0 ? 0d : r.count * 1e9 / total,
+                    percentile(sorted, 0.50) / 1e3,
+                    percentile(sorted, 0.99) / 1e3,
+                    r.allocated / Math.max(1, r.count));
+        }
+        System.out.printf("%nTotal: %d events in %.2fs (%.0f events/s, including the events creation)%n", events, elapsed / 1e9, events * 1e9 / elapsed);
+    }
+
+    private static long percentile(@NotNull final long[] sorted, final double percentile) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * percentile) - 1)];
+    }
+}
@@ -25,11 +25,8 @@ import fr.andross.banitem.utils.debug.DebugMessage;
 import fr.andross.banitem.utils.list.ListType;
 import fr.andross.banitem.utils.list.Listable;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -59,30 +56,18 @@ public final class BanConfig {
      * This should not be used externally.
      * Use {@link fr.andross.banitem.BanItemAPI#load(CommandSender, File)} instead.
      *
-     * @param plugin ban item plugin instance
-     * @param sender the command sender
-     * @param configFile the configuration file to load
+     * @param plugin     ban item plugin instance
+     * @param sender     the command sender
+     * @param configFile the configuration file loaded
+     * @param config     the configuration, already read from the file
      */
     BanConfig(@NotNull final BanItem plugin,
               @NotNull final CommandSender sender,
-              @Nullable final File configFile) {
+              @NotNull final File configFile,
+              @NotNull final FileConfiguration config) {
         this.plugin = plugin;
-        if (configFile == null) {
-            plugin.saveDefaultConfig();
-            plugin.reloadConfig();
-            this.configFile = new File(plugin.getDataFolder(), "config.yml");
-            this.config = plugin.getConfig();
-        } else {
-            this.configFile = configFile;
-            this.config = new YamlConfiguration();
-            try {
-                config.load(configFile);
-            } catch (final IOException | InvalidConfigurationException e) {
-                plugin.getLogger().log(Level.WARNING, "Can not load config file '" + configFile.getName() + "': " + e.getMessage(), e);
-                sender.sendMessage(Chat.color("&cCan not load config file '" + configFile.getName() + "': " + e.getMessage()));
-                sender.sendMessage(Chat.color("&cDetailed error message on console."));
-            }
-        }
+        this.configFile = configFile;
+        this.config = config;
 
         // Loading prefix
         final String prefix = this.config.getString("prefix");
@@ -18,23 +18,30 @@
 package fr.andross.banitem;
 
 import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.actions.BanDataType;
 import fr.andross.banitem.database.Blacklist;
+import fr.andross.banitem.database.VerdictTable;
 import fr.andross.banitem.database.Whitelist;
 import fr.andross.banitem.database.items.CustomItems;
 import fr.andross.banitem.database.items.Items;
 import fr.andross.banitem.database.items.MetaItems;
 import fr.andross.banitem.items.BannedItem;
 import fr.andross.banitem.items.CustomBannedItem;
+import fr.andross.banitem.utils.hooks.RegionCache;
+import fr.andross.banitem.utils.list.Listable;
+import fr.andross.banitem.utils.list.SelectorCache;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
 /**
  * Class that contains all the maps.
@@ -48,6 +55,9 @@ public final class BanDatabase {
     private final MetaItems metaItems;
     private final Blacklist blacklist;
     private final Whitelist whitelist;
+    private final int matchCacheSize;
+    private final boolean playerBanItemEvent;
+    private volatile VerdictTable verdicts;
 
     /**
      * Loading the plugin database.
@@ -56,12 +66,110 @@ public final class BanDatabase {
      */
     BanDatabase(@NotNull final BanItem plugin,
                 @NotNull final CommandSender sender,
-                @NotNull final FileConfiguration config) {
+                @NotNull final FileConfiguration config,
+                @NotNull final FileConfiguration customItemsConfig) {
         this.plugin = plugin;
-        this.customItems = new CustomItems(plugin, sender);
-        this.metaItems = new MetaItems(plugin, sender);
-        this.blacklist = new Blacklist(plugin, this, sender, config.getConfigurationSection("blacklist"));
-        this.whitelist = new Whitelist(plugin, this, sender, config.getConfigurationSection("whitelist"));
+        this.matchCacheSize = config.getInt("custom-items-cache.max-size", 1000);
+        this.playerBanItemEvent = config.getBoolean("api.playerbanitemevent");
+
+        // Selectors resolved once for this load
+        Listable.setSelectorCache(new SelectorCache());
+        try {
+            this.customItems = new CustomItems(plugin, sender, customItemsConfig);
+            this.metaItems = new MetaItems(plugin, sender);
+            this.blacklist = new Blacklist(plugin, this, sender, config.getConfigurationSection("blacklist"));
+            this.whitelist = new Whitelist(plugin, this, sender, config.getConfigurationSection("whitelist"));
+        } finally {
+            Listable.setSelectorCache(null);
+        }
+    }
+
+    /**
+     * Copying the plugin database, to build a new snapshot.
+     * The blacklist, whitelist and meta items are copied, custom items are shared.
+     *
+     * @param database the database to copy
+     */
+    BanDatabase(@NotNull final BanDatabase database) {
+        this.plugin = database.plugin;
+        this.matchCacheSize = database.matchCacheSize;
+        this.playerBanItemEvent = database.playerBanItemEvent;
+        this.customItems = database.customItems;
+        this.metaItems = new MetaItems(database.metaItems);
+        this.blacklist = new Blacklist(database.blacklist, this);
+        this.whitelist = new Whitelist(database.whitelist, this);
+    }
+
+    /**
+     * Get the compiled verdict table of the blacklist and whitelist.
+     * The table is compiled on first use, and again after {@link #invalidateVerdicts()}.
+     * It only reads the lists, so it can be compiled off the main thread before the database is swapped.
+     *
+     * @return the compiled verdict table
+     */
+    @NotNull
+    public VerdictTable getVerdicts() {
+        VerdictTable table = verdicts;
+        if (table == null) {
+            table = new VerdictTable(blacklist, whitelist, playerBanItemEvent);
+            verdicts = table;
+        }
+        return table;
+    }
+
+    /**
+     * Invalidate the compiled verdict table, so it will be compiled again on next use.
+     * This must be called if the blacklist or whitelist maps are edited directly.
+     */
+    public void invalidateVerdicts() {
+        verdicts = null;
+    }
+
+    /**
+     * Get the maximum amount of custom items matches cached, per world map.
+     *
+     * @return the maximum amount of custom items matches cached, 0 if disabled
+     */
+    public int getMatchCacheSize() {
+        return matchCacheSize;
+    }
+
+    /**
+     * Get the total amount of custom items matches served from the caches.
+     *
+     * @return the total amount of cache hits, in blacklist and whitelist
+     */
+    public long getMatchCacheHits() {
+        return blacklist.values().stream().mapToLong(i -> i.getMatchCache().getHits()).sum() +
+                whitelist.values().stream().mapToLong(i -> i.getMatchCache().getHits()).sum();
+    }
+
+    /**
+     * Get the total amount of custom items matches which were not cached.
+     *
+     * @return the total amount of cache misses, in blacklist and whitelist
+     */
+    public long getMatchCacheMisses() {
+        return blacklist.values().stream().mapToLong(i -> i.getMatchCache().getMisses()).sum() +
+                whitelist.values().stream().mapToLong(i -> i.getMatchCache().getMisses()).sum();
+    }
+
+    /**
+     * Get the ids of all the regions used by the region data, in blacklist and whitelist.
+     *
+     * @param regionCache the regions cache, whose provider interns the regions ids
+     * @return a bitset containing the regions ids
+     */
+    @NotNull
+    public BitSet getRegionIds(@NotNull final RegionCache regionCache) {
+        final BitSet ids = new BitSet();
+        Stream.concat(blacklist.values().stream(), whitelist.values().stream())
+                .flatMap(i -> Stream.concat(i.getItems().values().stream(), i.getCustomItems().values().stream()))
+                .flatMap(m -> m.values().stream())
+                .filter(d -> d.getMap().containsKey(BanDataType.REGION))
+                .map(d -> d.getRegionIds(regionCache))
+                .forEach(ids::or);
+        return ids;
     }
 
     /**
@@ -79,6 +187,7 @@ public final class BanDatabase {
 
     /**
      * Try to add a meta item <i>({@link BannedItem})</i> into the map and the config file.
+     * This edits this database only: use {@link BanItemAPI#addMetaItem(String, ItemStack)} to edit the enforced one.
      *
      * @param metaName name of the meta item
      * @param metaItem ItemStack
@@ -100,6 +209,7 @@ public final class BanDatabase {
     /**
      * Try to remove the meta item with the said name.
      * You should check if the meta item exists before calling this method.
+     * This edits this database only: use {@link BanItemAPI#removeMetaItem(String)} to edit the enforced one.
      *
      * @param metaItem name of the meta item
      */
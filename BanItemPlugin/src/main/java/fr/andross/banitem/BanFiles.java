@@ -0,0 +1,132 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * The configuration files of a load, read and parsed off the main thread.
+ * <p>Only the files are read here: nothing is resolved against the server or the hooked plugins,
+ * this is done on the main thread when building the {@link BanDatabase}.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+final class BanFiles {
+    private final File configFile;
+    private final YamlConfiguration config = new YamlConfiguration();
+    private final YamlConfiguration customItems = new YamlConfiguration();
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Reading the configuration files, creating the default ones if missing.
+     *
+     * @param plugin     ban item plugin instance
+     * @param configFile the configuration file to read, or null for the default config.yml
+     */
+    BanFiles(@NotNull final BanItem plugin, @Nullable final File configFile) {
+        if (configFile == null) {
+            plugin.saveDefaultConfig();
+            this.configFile = new File(plugin.getDataFolder(), "config.yml");
+
+            // Defaults, as JavaPlugin#reloadConfig()
+            final InputStream defaults = plugin.getResource("config.yml");
+            if (defaults != null) {
+                config.setDefaults(YamlConfiguration.loadConfiguration(new InputStreamReader(defaults, StandardCharsets.UTF_8)));
+            }
+        } else {
+            this.configFile = configFile;
+        }
+        read(plugin, this.configFile, config);
+
+        final File customItemsFile = new File(plugin.getDataFolder(), "customitems.yml");
+        if (!customItemsFile.exists()) {
+            plugin.saveResource("customitems.yml", false);
+        }
+        read(plugin, customItemsFile, customItems);
+    }
+
+    /**
+     * Reading a file into this configuration, keeping the error if it can not be loaded.
+     *
+     * @param plugin ban item plugin instance
+     * @param file   the file
+     * @param config the configuration to load into
+     */
+    private void read(@NotNull final BanItem plugin, @NotNull final File file, @NotNull final YamlConfiguration config) {
+        try {
+            config.load(file);
+        } catch (final IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.WARNING, "Can not load config file '" + file.getName() + "': " + e.getMessage(), e);
+            errors.add("&cCan not load config file '" + file.getName() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the configuration file read.
+     *
+     * @return the configuration file
+     */
+    @NotNull
+    File getConfigFile() {
+        return configFile;
+    }
+
+    /**
+     * Get the configuration read.
+     *
+     * @return the configuration, empty if it could not be read
+     */
+    @NotNull
+    YamlConfiguration getConfig() {
+        return config;
+    }
+
+    /**
+     * Get the custom items configuration read, from <i>customitems.yml</i>.
+     *
+     * @return the custom items configuration, empty if it could not be read
+     */
+    @NotNull
+    YamlConfiguration getCustomItems() {
+        return customItems;
+    }
+
+    /**
+     * Get the errors met while reading the files, to send to the command sender.
+     *
+     * @return the errors messages
+     */
+    @NotNull
+    List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+}
@@ -19,10 +19,15 @@ package fr.andross.banitem;
 
 import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
 import fr.andross.banitem.utils.hooks.IWorldGuardHook;
+import fr.andross.banitem.utils.hooks.NativeRegionProvider;
+import fr.andross.banitem.utils.hooks.RegionCache;
 import fr.andross.banitem.utils.hooks.WorldGuard6Hook;
 import fr.andross.banitem.utils.hooks.WorldGuard7Hook;
+import fr.andross.banitem.utils.hooks.WorldGuardRegionProvider;
 import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,6 +40,7 @@ import org.jetbrains.annotations.Nullable;
 public final class BanHooks {
     private boolean isWorldGuardEnabled = false;
     private IWorldGuardHook worldGuardHook = null;
+    private RegionCache regionCache = null;
     private boolean isAdvancedEnchantmentsEnabled = false;
     private boolean isPlaceholderApiEnabled = false;
 
@@ -59,12 +65,22 @@ public final class BanHooks {
                 } else {
                     throw new Exception("unknown WorldGuard version " + version);
                 }
+                regionCache = new RegionCache(new WorldGuardRegionProvider(worldGuardHook));
                 isWorldGuardEnabled = true;
             } catch (final Throwable e) {
                 pl.getUtils().sendMessage(sender, "&c[Hooks] Can not hook with WorldGuard.");
                 isWorldGuardEnabled = false;
             }
 
+        // Native regions?
+        final ConfigurationSection regions = pl.getBanConfig().getConfig().getConfigurationSection("regions");
+        if (regionCache == null && regions != null && !regions.getKeys(false).isEmpty()) {
+            final NativeRegionProvider provider = loadRegions(pl, sender, regions);
+            if (provider.size() > 0) {
+                regionCache = new RegionCache(provider);
+            }
+        }
+
         // AdvancedEnchantments?
         if (pl.getBanConfig().getConfig().getBoolean("hooks.advancedenchantments")) {
             try {
@@ -88,6 +104,59 @@ public final class BanHooks {
         }
     }
 
+    /**
+     * Loading the native cuboid regions from the config.
+     *
+     * @param pl      the plugin instance
+     * @param sender  the sender to notify for errors
+     * @param section the <i>regions</i> configuration section
+     * @return the native regions provider
+     */
+    @NotNull
+    private NativeRegionProvider loadRegions(@NotNull final BanItem pl, @NotNull final CommandSender sender, @NotNull final ConfigurationSection section) {
+        final NativeRegionProvider provider = new NativeRegionProvider();
+        for (final String key : section.getKeys(false)) {
+            final ConfigurationSection region = section.getConfigurationSection(key);
+            final World world = region == null ? null : pl.getServer().getWorld(String.valueOf(region.getString("world")));
+            if (world == null) {
+                pl.getUtils().sendMessage(sender, "&c[Regions] Unknown world for region &e" + key + "&c.");
+                continue;
+            }
+            final int[] pos1 = parsePosition(region.getString("pos1"));
+            final int[] pos2 = parsePosition(region.getString("pos2"));
+            if (pos1 == null || pos2 == null) {
+                pl.getUtils().sendMessage(sender, "&c[Regions] Invalid positions for region &e" + key + "&c, expected '&ex y z&c'.");
+                continue;
+            }
+            if (!provider.addRegion(world, key, pos1, pos2)) {
+                pl.getUtils().sendMessage(sender, "&c[Regions] Region &e" + key + "&c is defined twice in world &e" + world.getName() + "&c.");
+            }
+        }
+        return provider;
+    }
+
+    /**
+     * Parsing a block position <i>(x y z)</i>.
+     *
+     * @param position the position string
+     * @return the coordinates, or null if invalid
+     */
+    @Nullable
+    private static int[] parsePosition(@Nullable final String position) {
+        if (position == null) {
+            return null;
+        }
+        final String[] split = position.trim().split("[\\s,]+");
+        if (split.length != 3) {
+            return null;
+        }
+        try {
+            return new int[]{Integer.parseInt(split[0]), Integer.parseInt(split[1]), Integer.parseInt(split[2])};
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Check if the plugin is successfully hooked with WorldGuard.
      *
@@ -107,6 +176,16 @@ public final class BanHooks {
         return worldGuardHook;
     }
 
+    /**
+     * Get the cache of the regions where the players are standing.
+     *
+     * @return the regions cache if hooked with WorldGuard or if native regions are defined, otherwise null
+     */
+    @Nullable
+    public RegionCache getRegionCache() {
+        return regionCache;
+    }
+
     /**
      * Check if the plugin is hooked with AdvancedEnchantments.
      *
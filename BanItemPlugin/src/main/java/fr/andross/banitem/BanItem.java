@@ -22,6 +22,7 @@ import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.metrics.Metrics;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.util.StringUtil;
@@ -33,6 +34,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 
 /**
  * BanItemPlugin.
@@ -45,7 +48,9 @@ public final class BanItem extends JavaPlugin {
     private BanItemAPI api;
     private BanConfig banConfig;
     private BanHooks hooks;
-    private BanDatabase banDatabase;
+    private volatile BanDatabase banDatabase;
+    private volatile FileConfiguration defaultConfig;
+    private final AtomicInteger loadGeneration = new AtomicInteger();
     private final BanUtils utils = new BanUtils(this);
     private final BanListener listener = new BanListener(this);
 
@@ -70,37 +75,154 @@ public final class BanItem extends JavaPlugin {
 
             // Loading plugin on next tick after worlds
             load(getServer().getConsoleSender(), null);
-
-            // Update checker
-            if (banConfig.getConfig().getBoolean("check-update")) {
-                getServer().getScheduler().runTaskAsynchronously(this, utils::checkForUpdate);
-            }
         }, 20L);
     }
 
+    @Override
+    public void onDisable() {
+        // Running the remaining queued commands
+        utils.getCommandDispatcher().flush();
+        utils.getCooldowns().clear();
+
+        // Writing the remaining audit entries
+        utils.getAuditLog().close();
+        utils.getMetricsServer().close();
+    }
+
     /**
      * (re)Loading the plugin with this configuration file.
      * If no config file set, using the default config.yml one.
+     * <p>The load runs in stages: the files are read off the main thread, the database is built
+     * on the main thread <i>(resolving the worlds, items, regions and hooks)</i>, its verdicts are compiled
+     * off the main thread, then the configuration, hooks and database are swapped on the main thread, all at once.
+     * The previous ones stay enforced until the swap, or if the load fails.</p>
      *
      * @param sender     command sender <i>(send the message debug to)</i>
      * @param configFile the file configuration to load. If null, using (and reloading) the default config
      */
     public void load(@NotNull final CommandSender sender, @Nullable final File configFile) {
         final long start = System.currentTimeMillis();
+        final int generation = loadGeneration.incrementAndGet();
+        final BanDatabase loadedFrom = banDatabase;
+
+        // Reading the files, off the main thread
+        getServer().getScheduler().runTaskAsynchronously(this, () -> {
+            final BanFiles files = new BanFiles(this, configFile);
+            if (isEnabled()) {
+                getServer().getScheduler().runTask(this, () -> build(sender, configFile, generation, loadedFrom, start, files));
+            }
+        });
+    }
+
+    /**
+     * Building the configuration, hooks and database from the files read, on the main thread.
+     *
+     * @param sender     command sender
+     * @param configFile the file configuration loaded, null for the default config
+     * @param generation the generation of this load
+     * @param loadedFrom the database enforced when the load started
+     * @param start      when the load started
+     * @param files      the files read
+     */
+    private void build(@NotNull final CommandSender sender,
+                       @Nullable final File configFile,
+                       final int generation,
+                       @Nullable final BanDatabase loadedFrom,
+                       final long start,
+                       @NotNull final BanFiles files) {
+        // A newer load has been requested meanwhile?
+        if (generation != loadGeneration.get()) {
+            return;
+        }
+        files.getErrors().forEach(error -> sender.sendMessage(Chat.color(error)));
+
+        // The database resolves its items against the new config & hooks,
+        // which are only swapped with it: the previous ones are enforced meanwhile
+        final BanConfig previousConfig = banConfig;
+        final BanHooks previousHooks = hooks;
+        final BanConfig newConfig;
+        final BanHooks newHooks;
+        final BanDatabase database;
+        try {
+            newConfig = banConfig = new BanConfig(this, sender, files.getConfigFile(), files.getConfig());
+            newHooks = hooks = new BanHooks(this, sender);
+            database = new BanDatabase(this, sender, files.getConfig(), files.getCustomItems());
+        } catch (final Exception e) {
+            loadFailed(sender, e);
+            return;
+        } finally {
+            banConfig = previousConfig;
+            hooks = previousHooks;
+        }
+
+        // Compiling the verdicts, off the main thread
+        getServer().getScheduler().runTaskAsynchronously(this, () -> {
+            Exception error = null;
+            try {
+                database.getVerdicts();
+            } catch (final Exception e) {
+                error = e;
+            }
+            final Exception finalError = error;
+            if (isEnabled()) {
+                getServer().getScheduler().runTask(this, () -> {
+                    if (finalError != null) {
+                        loadFailed(sender, finalError);
+                    } else if (generation == loadGeneration.get()) {
+                        // The database has been edited meanwhile? Loading again, with the saved edits
+                        if (banDatabase != loadedFrom) {
+                            load(sender, configFile);
+                            return;
+                        }
+                        swap(sender, configFile, start, newConfig, newHooks, database);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Swapping the configuration, hooks and database, on the main thread.
+     *
+     * @param sender     command sender
+     * @param configFile the file configuration loaded, null for the default config
+     * @param start      when the load started
+     * @param newConfig  the new configuration
+     * @param newHooks   the new hooks
+     * @param database   the new database, with its verdicts compiled
+     */
+    private void swap(@NotNull final CommandSender sender,
+                      @Nullable final File configFile,
+                      final long start,
+                      @NotNull final BanConfig newConfig,
+                      @NotNull final BanHooks newHooks,
+                      @NotNull final BanDatabase database) {
+        final boolean firstLoad = banDatabase == null;
 
         // Removing all tasks
         utils.getWearScanner().setEnabled(false);
         utils.getIllegalStackScanner().setEnabled(false);
         getServer().getScheduler().cancelTasks(this);
 
-        // (re)Loading config
-        banConfig = new BanConfig(this, sender, configFile);
+        // Swapping config & hooks
+        banConfig = newConfig;
+        hooks = newHooks;
+        if (configFile == null) {
+            defaultConfig = newConfig.getConfig();
+        }
 
-        // (re)Loading hooks
-        hooks = new BanHooks(this, sender);
+        // Clearing bypass permissions cache
+        utils.getBypassCache().reload(banConfig.getConfig().getLong("bypass-cache.ttl", 10) * 1000L);
+        utils.getCooldowns().clear(); // Bound to the previous database actions data
+        utils.getRateLimiter().reload(banConfig.getConfig().getConfigurationSection("rate-limit"));
+        utils.getPlaceholderCache().reload(hooks.isPlaceholderApiEnabled() ? banConfig.getConfig().getConfigurationSection("placeholderapi-cache") : null);
+        utils.getCommandDispatcher().reload(banConfig.getConfig().getConfigurationSection("run-dispatcher"), hooks.isPlaceholderApiEnabled());
+        utils.getAuditLog().reload(banConfig.getConfig().getConfigurationSection("audit"));
+        utils.getMetricsServer().reload(banConfig.getConfig().getConfigurationSection("metrics"));
+        utils.getScanScheduler().reload(banConfig.getConfig().getConfigurationSection("scanner"));
 
-        // (re)Loading database
-        banDatabase = new BanDatabase(this, sender, banConfig.getConfig());
+        // Swapping the database
+        setBanDatabase(database);
 
         // (re)Loading listeners
         listener.load(sender);
@@ -112,22 +234,57 @@ public final class BanItem extends JavaPlugin {
         final long end = System.currentTimeMillis();
         final boolean moredebug = banConfig.getConfig().getBoolean("debug.reload");
         if (moredebug) {
-            utils.sendMessage(sender, "&2Successfully loaded &e" + banDatabase.getBlacklist().getTotalBlacklistedItems() + "&2 blacklisted & &e" + banDatabase.getWhitelist().getTotalWhitelistedItems() + "&2 whitelisted item(s) &7&o[" + (end - start) + "ms]&2.");
+            utils.sendMessage(sender, "&2Successfully loaded &e" + database.getBlacklist().getTotalBlacklistedItems() + "&2 blacklisted & &e" + database.getWhitelist().getTotalWhitelistedItems() + "&2 whitelisted item(s) &7&o[" + (end - start) + "ms]&2.");
             utils.sendMessage(sender, "&2Listeners activated: &e" + listener.getActivated());
-            utils.sendMessage(sender, "&2Meta items loaded: &e" + banDatabase.getMetaItems().size());
-            utils.sendMessage(sender, "&2Custom items loaded: &e" + banDatabase.getCustomItems().size());
+            utils.sendMessage(sender, "&2Meta items loaded: &e" + database.getMetaItems().size());
+            utils.sendMessage(sender, "&2Custom items loaded: &e" + database.getCustomItems().size());
         } else {
-            utils.sendMessage(sender, "&2Successfully loaded &e" + banDatabase.getBlacklist().getTotalBlacklistedItems() + "&2 blacklisted & &e" + banDatabase.getWhitelist().getTotalWhitelistedItems() + "&2 whitelisted item(s).");
+            utils.sendMessage(sender, "&2Successfully loaded &e" + database.getBlacklist().getTotalBlacklistedItems() + "&2 blacklisted & &e" + database.getWhitelist().getTotalWhitelistedItems() + "&2 whitelisted item(s).");
+        }
+
+        // Update checker
+        if (firstLoad && banConfig.getConfig().getBoolean("check-update")) {
+            getServer().getScheduler().runTaskAsynchronously(this, utils::checkForUpdate);
         }
     }
 
+    /**
+     * Notify that the load failed, the previous configuration and database being kept.
+     *
+     * @param sender command sender
+     * @param e      the error
+     */
+    private void loadFailed(@NotNull final CommandSender sender, @NotNull final Exception e) {
+        getLogger().log(Level.SEVERE, "Can not load the configuration, the previous one is kept.", e);
+        sender.sendMessage(Chat.color("&c&l[&e&lBanItem&c&l] &cCan not load the configuration: " + e.getMessage()));
+        sender.sendMessage(Chat.color("&cThe previous one is kept. Detailed error message on console."));
+    }
+
+    /**
+     * Get the default configuration <i>(config.yml)</i>, as last loaded by {@link #load(CommandSender, File)}.
+     *
+     * @return the default configuration
+     */
+    @NotNull
+    @Override
+    public FileConfiguration getConfig() {
+        final FileConfiguration config = defaultConfig;
+        return config == null ? super.getConfig() : config;
+    }
+
+    @Override
+    public void reloadConfig() {
+        defaultConfig = null;
+        super.reloadConfig();
+    }
+
     @Override
     public boolean onCommand(@NotNull final CommandSender sender,
                              @NotNull final Command command,
                              @NotNull final String label,
                              @NotNull final String[] args) {
         // Plugin not loaded yet?
-        if (banConfig == null) {
+        if (banDatabase == null) {
             sender.sendMessage(Chat.color("&c&l[&e&lBanItem&c&l] &cThe plugin is not loaded yet. Please wait before using the command."));
             return true;
         }
@@ -158,6 +315,7 @@ public final class BanItem extends JavaPlugin {
         if (sender instanceof Player) {
             utils.sendMessage(sender, "&7&m     &r &l[&7&lUsage - &e&lv" + getDescription().getVersion() + "&r&l] &7&m     ");
             utils.sendMessage(sender, " &7- /bi &3add&7: add an item in blacklist for current world.");
+            utils.sendMessage(sender, " &7- /bi &3audit&7: read the last bans from the audit log.");
             utils.sendMessage(sender, " &7- /bi &3check&7: check if any player has a blacklisted item.");
             utils.sendMessage(sender, " &7- /bi &3help&7: gives additional information.");
             utils.sendMessage(sender, " &7- /bi &3info&7: get info about your item in hand.");
@@ -166,15 +324,18 @@ public final class BanItem extends JavaPlugin {
             utils.sendMessage(sender, " &7- /bi &3metaitem&7: add/remove/list meta items.");
             utils.sendMessage(sender, " &7- /bi &3reload&7: reload the config.");
             utils.sendMessage(sender, " &7- /bi &3remove&7: remove and unban the item if banned.");
+            utils.sendMessage(sender, " &7- /bi &3stats&7: show the runtime statistics.");
         } else {
             utils.sendMessage(sender, "&7&m     &r &l[&7&lConsole Usage - &e&lv" + getDescription().getVersion() + "&r&l] &7&m     ");
             utils.sendMessage(sender, " &7- /bi &3add&7: add an item in blacklist for current world.");
+            utils.sendMessage(sender, " &7- /bi &3audit&7: read the last bans from the audit log.");
             utils.sendMessage(sender, " &7- /bi &3check&7: check if any player has a blacklisted item.");
             utils.sendMessage(sender, " &7- /bi &3help&7: gives additional information.");
             utils.sendMessage(sender, " &7- /bi &3load&7: load a specific config file.");
             utils.sendMessage(sender, " &7- /bi &3metaitem&7: add/remove/list meta items.");
             utils.sendMessage(sender, " &7- /bi &3reload&7: reload the config.");
             utils.sendMessage(sender, " &7- /bi &3remove&7: remove and unban the item if banned.");
+            utils.sendMessage(sender, " &7- /bi &3stats&7: show the runtime statistics.");
         }
         return true;
     }
@@ -192,7 +353,7 @@ public final class BanItem extends JavaPlugin {
 
         // Sub command
         if (args.length == 1) {
-            return StringUtil.copyPartialMatches(args[0], Arrays.asList("add", "check", "help", "info", "load", "log", "metaitem", "reload", "remove"), new ArrayList<>());
+            return StringUtil.copyPartialMatches(args[0], Arrays.asList("add", "audit", "check", "help", "info", "load", "log", "metaitem", "reload", "remove", "stats"), new ArrayList<>());
         }
 
         // Running subcommand
@@ -258,6 +419,19 @@ public final class BanItem extends JavaPlugin {
         return banDatabase;
     }
 
+    /**
+     * Swap the ban database with a new snapshot.
+     * Readers keep using the snapshot they already got.
+     *
+     * @param banDatabase the new ban database
+     */
+    void setBanDatabase(@NotNull final BanDatabase banDatabase) {
+        this.banDatabase = banDatabase;
+        if (hooks.getRegionCache() != null) {
+            hooks.getRegionCache().setRelevantRegions(banDatabase.getRegionIds(hooks.getRegionCache()));
+        }
+    }
+
     /**
      * Utility class for the plugin.
      *
@@ -21,12 +21,14 @@ import fr.andross.banitem.actions.BanAction;
 import fr.andross.banitem.actions.BanActionData;
 import fr.andross.banitem.actions.BanData;
 import fr.andross.banitem.database.Blacklist;
+import fr.andross.banitem.database.VerdictTable;
 import fr.andross.banitem.database.Whitelist;
 import fr.andross.banitem.database.WhitelistedWorld;
 import fr.andross.banitem.database.items.CustomItems;
 import fr.andross.banitem.database.items.Items;
 import fr.andross.banitem.items.BannedItem;
 import fr.andross.banitem.utils.Utils;
+import fr.andross.banitem.utils.metrics.BanMetrics;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -48,7 +50,11 @@ import java.util.stream.Collectors;
  * <p>This api is loaded on next tick after server load, to allow other custom worlds plugins to load worlds.
  * So this API is <u>not</u> available on server load, but will be on next available tick!</p>
  * <p>If you add/remove any action from a map <i>(blacklist/whitelist)</i>, you have to reload the plugin listeners
- * so it can handle correctly the actions, using {@link BanListener#load(CommandSender)} ()}</p>
+ * so it can handle correctly the actions, using {@link BanListener#load(CommandSender)} ()}.
+ * The add/remove methods of this api <i>(including the meta items ones)</i> build a new database snapshot,
+ * swapped once edited: the database objects you got before are not updated.
+ * These methods must be called from the main thread, so the edits are never lost between two snapshots.
+ * Prefer these methods over editing the maps of {@link #getDatabase()}, as the edits are lost on the next swap.</p>
  *
  * @author Andross
  * @version 3.3
@@ -96,7 +102,10 @@ public final class BanItemAPI {
     }
 
     /**
-     * (re)Loading the plugin with this configuration file
+     * (re)Loading the plugin with this configuration file.
+     * The files are read and the database verdicts compiled off the main thread, the database being built
+     * then swapped with the configuration on the main thread: this method returns before the load is done.
+     * If the load fails, the previous configuration and database are kept enforced.
      *
      * @param sender     command sender <i>(send the message debug to)</i>
      * @param configFile the file configuration to load. If null, using (and reloading) the default config
@@ -125,7 +134,7 @@ public final class BanItemAPI {
                             @NotNull final Material m,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, null, new BannedItem(m), false, action, data);
+        return isBanned(player, null, m, false, action, data);
     }
 
     /**
@@ -144,7 +153,7 @@ public final class BanItemAPI {
                             @NotNull final Material m,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, loc, new BannedItem(m), false, action, data);
+        return isBanned(player, loc, m, false, action, data);
     }
 
     /**
@@ -163,7 +172,7 @@ public final class BanItemAPI {
                             final boolean sendMessage,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, null, new BannedItem(m), sendMessage, action, data);
+        return isBanned(player, null, m, sendMessage, action, data);
     }
 
     /**
@@ -184,7 +193,12 @@ public final class BanItemAPI {
                             final boolean sendMessage,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, loc, new BannedItem(m), sendMessage, action, data);
+        final long start = System.nanoTime();
+        final byte verdict = getVerdict(player, m, sendMessage, action);
+        if (verdict != VerdictTable.CHECK) {
+            return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.PLAYER, start, verdict == VerdictTable.DENIED);
+        }
+        return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.PLAYER, start, checkBanned(player, loc, new BannedItem(m), sendMessage, action, data));
     }
 
 
@@ -208,7 +222,7 @@ public final class BanItemAPI {
                             @NotNull final ItemStack item,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, null, new BannedItem(item), false, action, data);
+        return isBanned(player, null, item, false, action, data);
     }
 
     /**
@@ -227,7 +241,7 @@ public final class BanItemAPI {
                             @NotNull final ItemStack item,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, loc, new BannedItem(item), false, action, data);
+        return isBanned(player, loc, item, false, action, data);
     }
 
     /**
@@ -246,7 +260,7 @@ public final class BanItemAPI {
                             final boolean sendMessage,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, null, new BannedItem(item), sendMessage, action, data);
+        return isBanned(player, null, item, sendMessage, action, data);
     }
 
     /**
@@ -267,7 +281,12 @@ public final class BanItemAPI {
                             final boolean sendMessage,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(player, loc, new BannedItem(item), sendMessage, action, data);
+        final long start = System.nanoTime();
+        final byte verdict = getVerdict(player, item.getType(), sendMessage, action);
+        if (verdict != VerdictTable.CHECK) {
+            return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.PLAYER, start, verdict == VerdictTable.DENIED);
+        }
+        return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.PLAYER, start, checkBanned(player, loc, new BannedItem(item), sendMessage, action, data));
     }
 
 
@@ -350,10 +369,66 @@ public final class BanItemAPI {
                             final boolean sendMessage,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
+        final long start = System.nanoTime();
+        final byte verdict = getVerdict(player, item.getType(), sendMessage, action);
+        if (verdict != VerdictTable.CHECK) {
+            return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.PLAYER, start, verdict == VerdictTable.DENIED);
+        }
+        return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.PLAYER, start, checkBanned(player, loc, item, sendMessage, action, data));
+    }
+
+    /**
+     * Get the compiled verdict for the material, sending the whitelist message if the material is denied.
+     * This is checked before creating any {@link BannedItem}, so items which can not be banned cost no allocation.
+     *
+     * @param player      the {@link Player} involved into this action
+     * @param m           the {@link Material} used
+     * @param sendMessage if the not allowed message should be sent to the player
+     * @param action      the {@link BanAction} to check
+     * @return the compiled verdict, as described in {@link VerdictTable}
+     */
+    private byte getVerdict(@NotNull final Player player,
+                            @NotNull final Material m,
+                            final boolean sendMessage,
+                            @NotNull final BanAction action) {
+        final World world = player.getWorld();
+        final byte verdict = plugin.getBanDatabase().getVerdicts().get(world, m, action);
+        if (verdict == VerdictTable.DENIED) {
+            if (sendMessage) {
+                plugin.getUtils().sendMessage(player, action, plugin.getBanDatabase().getWhitelist().get(world).getMessages());
+            }
+            plugin.getUtils().getAuditLog().record(player, "whitelist", action, m.name().toLowerCase(Locale.ROOT));
+            plugin.getUtils().getMetrics().recordWhitelistDenial(action);
+        }
+        return verdict;
+    }
+
+    /**
+     * Running the full blacklist and whitelist checks for the BannedItem object.
+     *
+     * @param player      the {@link Player} involved into this action
+     * @param loc         the effective {@link Location} of the action
+     * @param item        the {@link BannedItem} object
+     * @param sendMessage if the banned message should be sent to the player
+     * @param action      the {@link BanAction} to check
+     * @param data        the optional ban action data
+     * @return true if this item is banned, otherwise false
+     */
+    private boolean checkBanned(@NotNull final Player player,
+                                @Nullable final Location loc,
+                                @NotNull final BannedItem item,
+                                final boolean sendMessage,
+                                @NotNull final BanAction action,
+                                @Nullable final BanData... data) {
         if (plugin.getBanDatabase().getBlacklist().isBlacklisted(player, loc, item, sendMessage, action, data)) {
+            plugin.getUtils().getMetrics().recordBlacklistHit(action);
+            return true;
+        }
+        if (!plugin.getBanDatabase().getWhitelist().isWhitelisted(player, loc, item, sendMessage, action, data)) {
+            plugin.getUtils().getMetrics().recordWhitelistDenial(action);
             return true;
         }
-        return !plugin.getBanDatabase().getWhitelist().isWhitelisted(player, loc, item, sendMessage, action, data);
+        return false;
     }
 
     /**
@@ -370,7 +445,15 @@ public final class BanItemAPI {
                             @NotNull final Material material,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(world, new BannedItem(material), action, data);
+        final long start = System.nanoTime();
+        final byte verdict = plugin.getBanDatabase().getVerdicts().get(world, material, action);
+        if (verdict != VerdictTable.CHECK) {
+            if (verdict == VerdictTable.DENIED) {
+                plugin.getUtils().getMetrics().recordWhitelistDenial(action);
+            }
+            return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.WORLD, start, verdict == VerdictTable.DENIED);
+        }
+        return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.WORLD, start, checkBanned(world, new BannedItem(material), action, data));
     }
 
     /**
@@ -387,7 +470,15 @@ public final class BanItemAPI {
                             @NotNull final ItemStack item,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
-        return isBanned(world, new BannedItem(item), action, data);
+        final long start = System.nanoTime();
+        final byte verdict = plugin.getBanDatabase().getVerdicts().get(world, item.getType(), action);
+        if (verdict != VerdictTable.CHECK) {
+            if (verdict == VerdictTable.DENIED) {
+                plugin.getUtils().getMetrics().recordWhitelistDenial(action);
+            }
+            return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.WORLD, start, verdict == VerdictTable.DENIED);
+        }
+        return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.WORLD, start, checkBanned(world, new BannedItem(item), action, data));
     }
 
     /**
@@ -404,10 +495,39 @@ public final class BanItemAPI {
                             @NotNull final BannedItem item,
                             @NotNull final BanAction action,
                             @Nullable final BanData... data) {
+        final long start = System.nanoTime();
+        final byte verdict = plugin.getBanDatabase().getVerdicts().get(world, item.getType(), action);
+        if (verdict != VerdictTable.CHECK) {
+            if (verdict == VerdictTable.DENIED) {
+                plugin.getUtils().getMetrics().recordWhitelistDenial(action);
+            }
+            return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.WORLD, start, verdict == VerdictTable.DENIED);
+        }
+        return plugin.getUtils().getMetrics().recordCheck(action, BanMetrics.Path.WORLD, start, checkBanned(world, item, action, data));
+    }
+
+    /**
+     * Running the full blacklist and whitelist checks for the BannedItem object, not involving a player.
+     *
+     * @param world  bukkit world <i>({@link World})</i>
+     * @param item   the involved item
+     * @param action the ban action to check
+     * @param data   the optional ban action data
+     * @return true if the item is banned, otherwise false
+     */
+    private boolean checkBanned(@NotNull final World world,
+                                @NotNull final BannedItem item,
+                                @NotNull final BanAction action,
+                                @Nullable final BanData... data) {
         if (plugin.getBanDatabase().getBlacklist().isBlacklisted(world, item, action, data)) {
+            plugin.getUtils().getMetrics().recordBlacklistHit(action);
+            return true;
+        }
+        if (!plugin.getBanDatabase().getWhitelist().isWhitelisted(world, item, action, data)) {
+            plugin.getUtils().getMetrics().recordWhitelistDenial(action);
             return true;
         }
-        return !plugin.getBanDatabase().getWhitelist().isWhitelisted(world, item, action, data);
+        return false;
     }
 
     /**
@@ -528,12 +648,13 @@ public final class BanItemAPI {
         // Preparing variables
         final boolean allWorlds = Utils.isNullOrEmpty(worlds);
         final List<World> appliedWorlds = allWorlds ? Bukkit.getWorlds() : Arrays.asList(worlds);
+        final BanDatabase snapshot = snapshot();
 
         for (final BannedItem item : items) {
-            final String name = plugin.getBanDatabase().getName(item);
+            final String name = snapshot.getName(item);
 
             // Adding in map
-            appliedWorlds.forEach(w -> getDatabase().getBlacklist().addNewBan(w, item, actions));
+            appliedWorlds.forEach(w -> snapshot.getBlacklist().addNewBan(w, item, actions));
 
             // Adding in config
             if (allWorlds) {
@@ -562,6 +683,7 @@ public final class BanItemAPI {
             }
         }
 
+        plugin.setBanDatabase(snapshot);
         return plugin.getBanConfig().saveConfig();
     }
 
@@ -588,15 +710,16 @@ public final class BanItemAPI {
                                        @Nullable final World... worlds) {
         // Preparing variables
         final List<World> appliedWorlds = Utils.isNullOrEmpty(worlds) ? Bukkit.getWorlds() : Arrays.asList(worlds);
+        final BanDatabase snapshot = snapshot();
 
         boolean removed = false;
         for (final BannedItem item : items) {
             final BannedItem typeItem = new BannedItem(item.getType());
-            final String name = plugin.getBanDatabase().getName(item);
+            final String name = snapshot.getName(item);
             final String typeName = item.getType().name().toLowerCase();
 
             for (final World world : appliedWorlds) {
-                final Items map = getDatabase().getBlacklist().get(world);
+                final Items map = snapshot.getBlacklist().get(world);
                 if (map == null) {
                     continue;
                 }
@@ -617,6 +740,7 @@ public final class BanItemAPI {
         }
 
         if (removed) {
+            plugin.setBanDatabase(snapshot);
             plugin.getBanConfig().saveConfig();
         }
         return removed;
@@ -650,11 +774,14 @@ public final class BanItemAPI {
                                   @NotNull final BannedItem item,
                                   @NotNull final Map<BanAction, BanActionData> actions) {
         // Adding in map
-        getWhitelist().addNewException(whitelistedWorld, item, actions);
+        final BanDatabase snapshot = snapshot();
+        final WhitelistedWorld ww = snapshot.getWhitelist().getOrCreateWhitelistedWorld(whitelistedWorld.getWorld(), whitelistedWorld.getMessages(), new ArrayList<>(whitelistedWorld.getIgnored()));
+        snapshot.getWhitelist().addNewException(ww, item, actions);
+        plugin.setBanDatabase(snapshot);
 
         // Adding in config
         // Getting the name of the item
-        final String name = plugin.getBanDatabase().getName(item);
+        final String name = snapshot.getName(item);
 
         final ConfigurationSection section = plugin.getBanConfig().getConfig().createSection("whitelist." + whitelistedWorld.getWorld().getName() + "." + name);
         for (final Map.Entry<BanAction, BanActionData> entry : actions.entrySet()) {
@@ -674,13 +801,16 @@ public final class BanItemAPI {
     public boolean removeFromWhitelist(@NotNull final WhitelistedWorld whitelistedWorld,
                                        @NotNull final BannedItem item) {
         // Removing from map
-        if (whitelistedWorld.getItems().remove(item) == null) {
+        final BanDatabase snapshot = snapshot();
+        final WhitelistedWorld ww = snapshot.getWhitelist().get(whitelistedWorld.getWorld());
+        if (ww == null || ww.getItems().remove(item) == null) {
             return true; // Nothing to remove
         }
+        plugin.setBanDatabase(snapshot);
 
         // Removing from config
         // Getting the name of the item
-        final String name = plugin.getBanDatabase().getName(item);
+        final String name = snapshot.getName(item);
         plugin.getBanConfig().getConfig().set("whitelist." + whitelistedWorld.getWorld().getName() + "." + name, null);
         return plugin.getBanConfig().saveConfig();
     }
@@ -761,7 +891,9 @@ public final class BanItemAPI {
      * @param item the custom ItemStack
      */
     public void addMetaItem(@NotNull final String name, @NotNull final ItemStack item) {
-        getDatabase().addMetaItem(name, item);
+        final BanDatabase snapshot = snapshot();
+        snapshot.addMetaItem(name, item);
+        plugin.setBanDatabase(snapshot);
     }
 
     /**
@@ -770,6 +902,22 @@ public final class BanItemAPI {
      * @param name the name of the custom ItemStack
      */
     public void removeMetaItem(@NotNull final String name) {
-        getDatabase().removeMetaItem(name);
+        final BanDatabase snapshot = snapshot();
+        snapshot.removeMetaItem(name);
+        plugin.setBanDatabase(snapshot);
+    }
+
+    /**
+     * Copy the current database, to edit it before swapping.
+     *
+     * @return a copy of the current database
+     * @throws IllegalStateException if not called from the main thread
+     */
+    @NotNull
+    private BanDatabase snapshot() {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("The BanItem database can only be edited from the main thread.");
+        }
+        return new BanDatabase(getDatabase());
     }
 }
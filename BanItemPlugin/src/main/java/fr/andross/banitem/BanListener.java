@@ -26,7 +26,7 @@ import fr.andross.banitem.utils.ItemStackBuilder;
 import fr.andross.banitem.utils.MinecraftVersion;
 import fr.andross.banitem.utils.Utils;
 import fr.andross.banitem.utils.enchantments.EnchantmentWrapper;
-import fr.andross.banitem.utils.hooks.IWorldGuardHook;
+import fr.andross.banitem.utils.hooks.RegionCache;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.BlockState;
@@ -92,6 +92,22 @@ public final class BanListener {
         HandlerList.unregisterAll(plugin);
         activated = 0;
 
+        // Bypass permissions cache invalidation
+        registerMonitor(PlayerChangedWorldEvent.class, (li, event) ->
+                plugin.getUtils().getBypassCache().invalidate(((PlayerChangedWorldEvent) event).getPlayer()));
+        registerMonitor(PlayerQuitEvent.class, (li, event) -> {
+            plugin.getUtils().getBypassCache().invalidate(((PlayerQuitEvent) event).getPlayer());
+            plugin.getUtils().getRateLimiter().invalidate(((PlayerQuitEvent) event).getPlayer());
+            plugin.getUtils().getPlaceholderCache().invalidate(((PlayerQuitEvent) event).getPlayer());
+        });
+
+        // Regions cache invalidation (the regions changes are followed by the cache refresh delay)
+        final RegionCache regionCache = plugin.getHooks().getRegionCache();
+        if (regionCache != null) {
+            registerMonitor(PlayerQuitEvent.class, (li, event) ->
+                    regionCache.invalidate(((PlayerQuitEvent) event).getPlayer().getUniqueId()));
+        }
+
         // Registering listeners, only if action is used
         if (blacklist.contains(BanAction.ARMORSTANDPLACE) || whitelist) {
             if (!MinecraftVersion.v8OrMore) {
@@ -864,11 +880,6 @@ public final class BanListener {
         }
 
         if (blacklist.contains(BanAction.PICKUP) || whitelist) {
-            // Pickup cooldown map clearing on player quit
-            registerEvent(PlayerQuitEvent.class, (li, event) ->
-                    plugin.getUtils().getMessagesCooldown()
-                            .remove(((PlayerQuitEvent) event).getPlayer().getUniqueId()), priority.contains(BanAction.PICKUP));
-
             if (MinecraftVersion.v12OrMore) {
                 registerEvent(org.bukkit.event.entity.EntityPickupItemEvent.class, (li, event) -> {
                     final org.bukkit.event.entity.EntityPickupItemEvent e = (org.bukkit.event.entity.EntityPickupItemEvent) event;
@@ -1397,35 +1408,32 @@ public final class BanListener {
                 plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getUtils().checkPlayerArmors(e.getPlayer()));
             }, priority.contains(BanAction.WEAR));
 
-            if (plugin.getBanConfig().getConfig().getBoolean("actions.wear.region-check") && plugin.getHooks().isWorldGuardEnabled()) {
-                final IWorldGuardHook hook = plugin.getHooks().getWorldGuardHook();
-                if (hook == null) {
-                    sender.sendMessage(Chat.color("&cCan not use the region checker for wear action, as worldguard is not reachable."));
-                } else {
-                    // Register the region change event
-                    registerEvent(PlayerMoveEvent.class, (li, event) -> {
-                        final PlayerMoveEvent e = (PlayerMoveEvent) event;
-                        if (e.getTo() == null) {
-                            return;
-                        }
-                        final Location from = e.getFrom();
-                        final Location to = e.getTo();
-                        if (from.getBlockX() == to.getBlockX() &&
-                                from.getBlockY() == to.getBlockY() &&
-                                from.getBlockZ() == to.getBlockZ()) {
-                            return;
-                        }
-                        if (!hook.getStandingRegions(from).equals(hook.getStandingRegions(to))) {
-                            plugin.getServer().getPluginManager().callEvent(new PlayerRegionChangeEvent(e.getPlayer()));
-                        }
-                    }, priority.contains(BanAction.WEAR));
+            if (plugin.getBanConfig().getConfig().getBoolean("actions.wear.region-check") && regionCache != null) {
+                regionCache.setRelevantRegions(db.getRegionIds(regionCache));
 
-                    registerEvent(PlayerRegionChangeEvent.class, (li, event) -> {
-                        final PlayerRegionChangeEvent e = (PlayerRegionChangeEvent) event;
-                        plugin.getServer().getScheduler().runTask(plugin, () ->
-                                plugin.getUtils().checkPlayerArmors(e.getPlayer()));
-                    }, priority.contains(BanAction.WEAR));
-                }
+                // Register the region change event
+                registerEvent(PlayerMoveEvent.class, (li, event) -> {
+                    final PlayerMoveEvent e = (PlayerMoveEvent) event;
+                    if (e.getTo() == null) {
+                        return;
+                    }
+                    final Location from = e.getFrom();
+                    final Location to = e.getTo();
+                    if (from.getBlockX() == to.getBlockX() &&
+                            from.getBlockY() == to.getBlockY() &&
+                            from.getBlockZ() == to.getBlockZ()) {
+                        return;
+                    }
+                    if (regionCache.hasRelevantChange(from, to)) {
+                        plugin.getServer().getPluginManager().callEvent(new PlayerRegionChangeEvent(e.getPlayer()));
+                    }
+                }, priority.contains(BanAction.WEAR));
+
+                registerEvent(PlayerRegionChangeEvent.class, (li, event) -> {
+                    final PlayerRegionChangeEvent e = (PlayerRegionChangeEvent) event;
+                    plugin.getServer().getScheduler().runTask(plugin, () ->
+                            plugin.getUtils().checkPlayerArmors(e.getPlayer()));
+                }, priority.contains(BanAction.WEAR));
             }
 
             // Scanner?
@@ -1453,6 +1461,18 @@ public final class BanListener {
         activated++;
     }
 
+    /**
+     * Registering an event used internally <i>(caches invalidation)</i>, at monitor priority.
+     * This is not counted as an activated listener.
+     *
+     * @param c             the event class
+     * @param eventExecutor the event executor
+     */
+    private void registerMonitor(@NotNull final Class<? extends Event> c,
+                                 @NotNull final EventExecutor eventExecutor) {
+        plugin.getServer().getPluginManager().registerEvent(c, listener, EventPriority.MONITOR, eventExecutor, plugin, false);
+    }
+
     /**
      * Get the amount of events registered.
      *
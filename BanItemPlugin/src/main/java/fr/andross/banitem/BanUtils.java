@@ -21,21 +21,33 @@ import fr.andross.banitem.actions.BanAction;
 import fr.andross.banitem.actions.BanActionData;
 import fr.andross.banitem.actions.BanData;
 import fr.andross.banitem.actions.BanDataType;
+import fr.andross.banitem.actions.CooldownService;
 import fr.andross.banitem.database.Blacklist;
+import fr.andross.banitem.database.VerdictTable;
 import fr.andross.banitem.events.DeleteBannedItemEvent;
 import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.utils.BypassCache;
 import fr.andross.banitem.utils.Chat;
+import fr.andross.banitem.utils.CommandDispatcher;
 import fr.andross.banitem.utils.PlaceholderApiCondition;
+import fr.andross.banitem.utils.PlaceholderCache;
+import fr.andross.banitem.utils.RateLimiter;
 import fr.andross.banitem.utils.Utils;
+import fr.andross.banitem.utils.audit.AuditLog;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.enchantments.EnchantmentWrapper;
 import fr.andross.banitem.utils.list.ListType;
 import fr.andross.banitem.utils.list.Listable;
+import fr.andross.banitem.utils.metrics.BanMetrics;
+import fr.andross.banitem.utils.metrics.MetricsServer;
+import fr.andross.banitem.utils.scanners.InventorySnapshot;
+import fr.andross.banitem.utils.scanners.ScanScheduler;
 import fr.andross.banitem.utils.scanners.WearScanner;
 import fr.andross.banitem.utils.scanners.illegalstack.IllegalStackBlockType;
 import fr.andross.banitem.utils.scanners.illegalstack.IllegalStackItemConfig;
 import fr.andross.banitem.utils.scanners.illegalstack.IllegalStackScanner;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
@@ -49,6 +61,7 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.net.ssl.HttpsURLConnection;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
@@ -67,13 +80,27 @@ public final class BanUtils {
     private final WearScanner wearScanner;
     private final IllegalStackScanner illegalStackScanner;
     private final Map<String, String> commandsAliases = new HashMap<>();
-    private final Map<UUID, Long> messagesCooldown = new HashMap<>();
     private final Set<UUID> logging = new HashSet<>();
+    private final BypassCache bypassCache = new BypassCache();
+    private final CooldownService cooldowns = new CooldownService();
+    private final RateLimiter rateLimiter = new RateLimiter();
+    private final PlaceholderCache placeholderCache;
+    private final CommandDispatcher commandDispatcher;
+    private final AuditLog auditLog;
+    private final BanMetrics metrics;
+    private final MetricsServer metricsServer;
+    private final ScanScheduler scanScheduler;
 
     BanUtils(final BanItem plugin) {
         this.plugin = plugin;
         this.wearScanner = new WearScanner(plugin, this);
         this.illegalStackScanner = new IllegalStackScanner(plugin, this);
+        this.placeholderCache = new PlaceholderCache(plugin);
+        this.commandDispatcher = new CommandDispatcher(plugin);
+        this.auditLog = new AuditLog(new File(plugin.getDataFolder(), "audit"), plugin.getLogger());
+        this.metrics = new BanMetrics(plugin);
+        this.metricsServer = new MetricsServer(metrics, plugin.getLogger());
+        this.scanScheduler = new ScanScheduler(plugin);
         commandsAliases.put("mi", "metaitem");
         commandsAliases.put("rl", "reload");
     }
@@ -257,7 +284,7 @@ public final class BanUtils {
 
                     final PlaceholderApiCondition placeholderApiCondition;
                     try {
-                        placeholderApiCondition = new PlaceholderApiCondition(placeholderApiConditionConfiguration);
+                        placeholderApiCondition = new PlaceholderApiCondition(placeholderApiConditionConfiguration, placeholderCache);
                     } catch (final IllegalArgumentException e) {
                         debug.clone()
                                 .add(ListType.ACTIONDATA, "&cUnable to prepare PlaceholderAPI condition : " + e.getMessage() + ".")
@@ -270,16 +297,15 @@ public final class BanUtils {
                 }
 
                 case REGION: {
-                    if (!plugin.getHooks().isWorldGuardEnabled()) {
+                    if (plugin.getHooks().getRegionCache() == null) {
                         debug.clone()
-                                .add(ListType.REGION, "&cUsed region metadata, but WorldGuard is not available.")
+                                .add(ListType.REGION, "&cUsed region metadata, but neither WorldGuard nor native regions are available.")
                                 .sendDebug();
                         continue;
                     }
-                    final List<com.sk89q.worldguard.protection.regions.ProtectedRegion> regions = Listable
-                            .getRegionsList(plugin, o, debug.add(ListType.REGION, actionData), worlds);
+                    final Set<String> regions = Listable.getRegionNames(plugin, o, debug.add(ListType.REGION, actionData), worlds);
                     if (!regions.isEmpty()) {
-                        banActionData.getMap().put(BanDataType.REGION, new HashSet<>(regions));
+                        banActionData.getMap().put(BanDataType.REGION, regions);
                     }
                     break;
                 }
@@ -329,7 +355,8 @@ public final class BanUtils {
 
             for (int i = 0; i < inv.getSize(); i++) {
                 final ItemStack item = inv.getItem(i);
-                if (Utils.isNullOrAir(item)) {
+                if (Utils.isNullOrAir(item) ||
+                        plugin.getBanDatabase().getVerdicts().get(player.getWorld(), item.getType(), BanAction.DELETE) == VerdictTable.ALLOWED) {
                     continue;
                 }
                 final BannedItem bannedItem = new BannedItem(item);
@@ -370,7 +397,7 @@ public final class BanUtils {
         final boolean log = data.getLog();
 
         // Logging?
-        if (log && !logging.isEmpty()) {
+        if (log && !logging.isEmpty() && rateLimiter.tryAcquire(player, action, RateLimiter.Channel.LOG)) {
             // Preparing message
             final String m = Chat.color(plugin.getBanConfig().getPrefix() + // prefix
                     player.getName() + " " + // player name
@@ -402,18 +429,9 @@ public final class BanUtils {
                             @NotNull final BanAction action,
                             @Nullable final List<String> messages) {
         if (messages != null && !messages.isEmpty()) {
-            // Checking action cooldown, to prevent spam
-            if (action == BanAction.PICKUP || action == BanAction.HOLD || action == BanAction.SMITH) {
-                // Adding in cooldown
-                if (!messagesCooldown.containsKey(player.getUniqueId())) {
-                    messagesCooldown.put(player.getUniqueId(), System.currentTimeMillis());
-                } else {
-                    final long lastTime = messagesCooldown.get(player.getUniqueId());
-                    if (lastTime + 1000L > System.currentTimeMillis()) {
-                        return; // not sending message again because in cooldown
-                    }
-                    messagesCooldown.put(player.getUniqueId(), System.currentTimeMillis());
-                }
+            // Checking the rate limit, to prevent spam
+            if (!rateLimiter.tryAcquire(player, action, RateLimiter.Channel.MESSAGE)) {
+                return; // not sending message again because in cooldown
             }
 
             if (plugin.getHooks().isPlaceholderApiEnabled()) {
@@ -427,7 +445,9 @@ public final class BanUtils {
             }
         }
 
-        plugin.getBanConfig().getAnimation().runAnimation(player);
+        if (rateLimiter.tryAcquire(player, action, RateLimiter.Channel.ANIMATION)) {
+            plugin.getBanConfig().getAnimation().runAnimation(player);
+        }
     }
 
     /**
@@ -462,6 +482,36 @@ public final class BanUtils {
                                  @NotNull final String itemName,
                                  @NotNull final BanAction action,
                                  @Nullable final BanData... data) {
+        // Most players can not bypass anything: one lookup, without building the key
+        if (!bypassCache.mayBypass(player)) {
+            return false;
+        }
+
+        final List<Object> key = new ArrayList<>(2 + (data == null ? 0 : data.length));
+        key.add(itemName);
+        key.add(action);
+        if (data != null) {
+            for (final BanData bd : data) {
+                key.add(bd.getType());
+                key.add(bd.getObject());
+            }
+        }
+        return bypassCache.hasPermission(player, key, () -> checkPermission(player, itemName, action, data));
+    }
+
+    /**
+     * Checking the bypass permissions of the player, without cache.
+     *
+     * @param player   player to check
+     * @param itemName name of the item
+     * @param action   action name
+     * @param data     additional data to check
+     * @return true if the player has the permission to bypass the ban, otherwise false
+     */
+    private boolean checkPermission(@NotNull final Player player,
+                                    @NotNull final String itemName,
+                                    @NotNull final BanAction action,
+                                    @Nullable final BanData... data) {
         final String world = player.getWorld().getName().toLowerCase();
         if (player.hasPermission("banitem.bypass.*")) {
             return true;
@@ -571,92 +621,74 @@ public final class BanUtils {
 
     /**
      * Used to check a player armor inventory.
+     * If not called on the main thread, the check is delayed to the next tick.
      *
      * @param player player
      */
-    public void checkPlayerArmors(final Player player) {
-        final EntityEquipment entityEquipment = player.getEquipment();
-        if (entityEquipment == null) {
+    public void checkPlayerArmors(@NotNull final Player player) {
+        if (!plugin.getServer().isPrimaryThread()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerArmors(player));
             return;
         }
+        checkPlayerArmors(player, new InventorySnapshot(player));
+    }
 
-        final boolean primaryThread = plugin.getServer().isPrimaryThread();
-        final ItemStack helmet = entityEquipment.getHelmet();
-        if (!Utils.isNullOrAir(helmet) &&
-                plugin.getApi().isBanned(player,
-                        player.getLocation(),
-                        helmet,
-                        primaryThread,
-                        BanAction.WEAR)) {
-            if (!primaryThread) {
-                plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerArmors(player));
-                return;
-            }
-
-            giveItemBack(player, helmet);
-            entityEquipment.setHelmet(null);
-        }
-
-        final ItemStack chestPlate = entityEquipment.getChestplate();
-        if (!Utils.isNullOrAir(chestPlate) &&
-                plugin.getApi().isBanned(player,
-                        player.getLocation(),
-                        chestPlate,
-                        primaryThread,
-                        BanAction.WEAR)) {
-            if (!primaryThread) {
-                plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerArmors(player));
-                return;
+    /**
+     * Used to check a player armor inventory, from an already taken inventory snapshot.
+     * This must be called on the main thread.
+     *
+     * @param player   player
+     * @param snapshot the inventory snapshot of the player
+     */
+    public void checkPlayerArmors(@NotNull final Player player, @NotNull final InventorySnapshot snapshot) {
+        final ItemStack[] armor = snapshot.getArmor();
+        Location location = null;
+        // From the helmet to the boots
+        for (int i = armor.length - 1; i >= 0; i--) {
+            final ItemStack item = armor[i];
+            if (Utils.isNullOrAir(item)) {
+                continue;
             }
-            giveItemBack(player, chestPlate);
-            entityEquipment.setChestplate(null);
-        }
-
-        final ItemStack leggings = entityEquipment.getLeggings();
-        if (!Utils.isNullOrAir(leggings) &&
-                plugin.getApi().isBanned(player,
-                        player.getLocation(),
-                        leggings,
-                        primaryThread,
-                        BanAction.WEAR)) {
-            if (!primaryThread) {
-                plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerArmors(player));
-                return;
+            if (location == null) {
+                location = player.getLocation();
             }
-            giveItemBack(player, leggings);
-            entityEquipment.setLeggings(null);
-        }
-
-        final ItemStack boots = entityEquipment.getBoots();
-        if (!Utils.isNullOrAir(boots) &&
-                plugin.getApi().isBanned(player,
-                        player.getLocation(),
-                        boots,
-                        primaryThread,
-                        BanAction.WEAR)) {
-            if (!primaryThread) {
-                plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerArmors(player));
-                return;
+            if (plugin.getApi().isBanned(player, location, item, true, BanAction.WEAR)) {
+                snapshot.giveItemBack(player, item);
+                snapshot.setArmor(i, null);
             }
-            giveItemBack(player, boots);
-            entityEquipment.setBoots(null);
         }
     }
 
     /**
      * Used to check if a player has an illegal stacked item.
+     * If not called on the main thread, the check is delayed to the next tick.
      *
      * @param player player
      */
     public void checkPlayerIllegalStacks(@NotNull final Player player) {
-        final PlayerInventory inv = player.getInventory();
+        if (!plugin.getServer().isPrimaryThread()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerIllegalStacks(player));
+            return;
+        }
+        checkPlayerIllegalStacks(player, new InventorySnapshot(player));
+    }
+
+    /**
+     * Used to check if a player has an illegal stacked item, from an already taken inventory snapshot.
+     * This must be called on the main thread.
+     *
+     * @param player   player
+     * @param snapshot the inventory snapshot of the player
+     */
+    public void checkPlayerIllegalStacks(@NotNull final Player player, @NotNull final InventorySnapshot snapshot) {
         final Map<Material, IllegalStackItemConfig> illegalStacks = illegalStackScanner.getItems().get(player.getWorld());
         if (illegalStacks == null) {
             return;
         }
 
-        for (int invSlot = 0; invSlot < inv.getSize(); invSlot++) {
-            final ItemStack item = inv.getItem(invSlot);
+        final ItemStack[] contents = snapshot.getContents();
+        for (int invSlot = 0; invSlot < contents.length; invSlot++) {
+            final ItemStack item = contents[invSlot];
             if (Utils.isNullOrAir(item)) {
                 continue;
             }
@@ -675,11 +707,6 @@ public final class BanUtils {
                     continue;
                 }
 
-                if (!plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getScheduler().runTask(plugin, () -> checkPlayerIllegalStacks(player));
-                    return;
-                }
-
                 // Blocking
                 final IllegalStackBlockType blockType = illegalStacks.containsKey(item.getType()) ?
                         illegalStacks.get(item.getType()).getBlockType() :
@@ -690,18 +717,18 @@ public final class BanUtils {
 
                 switch (blockType) {
                     case DELETE: // totally remove the item
-                        inv.setItem(invSlot, null);
+                        snapshot.setItem(invSlot, null);
                         break;
                     case DELETEMORE:
                     case SPLIT: // delete what's more or split it and give it back to player
                         final int amountMore = item.getAmount() - maxStack;
                         item.setAmount(item.getAmount() - amountMore);
-                        inv.setItem(invSlot, item);
+                        snapshot.setItem(invSlot, item);
                         if (blockType == IllegalStackBlockType.SPLIT) {
                             for (int j = 0; j < amountMore; j++) {
                                 final ItemStack newItem = item.clone();
                                 newItem.setAmount(1);
-                                giveItemBack(player, newItem);
+                                snapshot.giveItemBack(player, newItem);
                             }
                         }
                         break;
@@ -774,13 +801,93 @@ public final class BanUtils {
     }
 
     /**
-     * Get the messages cooldown map.
+     * Get the per player cache of the bypass permissions checks.
+     *
+     * @return the bypass permissions cache
+     */
+    @NotNull
+    public BypassCache getBypassCache() {
+        return bypassCache;
+    }
+
+    /**
+     * Get the players cooldowns of the ban actions.
+     *
+     * @return the cooldowns service
+     */
+    @NotNull
+    public CooldownService getCooldowns() {
+        return cooldowns;
+    }
+
+    /**
+     * Get the per player and per action limiter of the ban messages, animations and log messages.
+     *
+     * @return the rate limiter
+     */
+    @NotNull
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Get the cache of the PlaceholderAPI values used by the placeholder conditions.
+     *
+     * @return the placeholder values cache
+     */
+    @NotNull
+    public PlaceholderCache getPlaceholderCache() {
+        return placeholderCache;
+    }
+
+    /**
+     * Get the dispatcher of the commands of the <i>run</i> data.
+     *
+     * @return the commands dispatcher
+     */
+    @NotNull
+    public CommandDispatcher getCommandDispatcher() {
+        return commandDispatcher;
+    }
+
+    /**
+     * Get the audit log of the bans.
+     *
+     * @return the audit log
+     */
+    @NotNull
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    /**
+     * Get the runtime metrics of the plugin.
+     *
+     * @return the metrics
+     */
+    @NotNull
+    public BanMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the embedded endpoint serving the metrics.
+     *
+     * @return the metrics endpoint
+     */
+    @NotNull
+    public MetricsServer getMetricsServer() {
+        return metricsServer;
+    }
+
+    /**
+     * Get the scheduler running the inventory scanners.
      *
-     * @return map containing the cooldowns for messages
+     * @return the inventory scan scheduler
      */
     @NotNull
-    public Map<UUID, Long> getMessagesCooldown() {
-        return messagesCooldown;
+    public ScanScheduler getScanScheduler() {
+        return scanScheduler;
     }
 
     /**
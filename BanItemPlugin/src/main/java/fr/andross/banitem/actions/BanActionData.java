@@ -20,8 +20,12 @@ package fr.andross.banitem.actions;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.MinecraftVersion;
 import fr.andross.banitem.utils.enchantments.EnchantmentWrapper;
+import fr.andross.banitem.utils.hooks.IRegionProvider;
+import fr.andross.banitem.utils.hooks.RegionCache;
+import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.EntityType;
 import org.bukkit.event.inventory.InventoryType;
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +46,7 @@ import java.util.stream.Collectors;
 public final class BanActionData {
     private final Map<BanDataType, Object> map = new EnumMap<>(BanDataType.class);
     private final Map<UUID, Long> cooldowns = new HashMap<>();
+    private volatile CompiledRegions compiledRegions;
 
     /**
      * Instantiation of the ban action data.
@@ -216,6 +221,49 @@ public final class BanActionData {
         return getData(BanDataType.MATERIAL);
     }
 
+    /**
+     * Trying to get the names of the regions added for this action.
+     *
+     * @return the set of regions names, null if there is none added
+     */
+    @Nullable
+    public Set<String> getRegions() {
+        return getData(BanDataType.REGION);
+    }
+
+    /**
+     * Get the ids of the regions added for this action, as interned by the regions provider of this cache.
+     * The ids are compiled from the regions names once per regions cache and regions set,
+     * so a new set of regions must be put to change them, instead of editing the current one.
+     *
+     * @param regionCache the regions cache
+     * @return a bitset containing the regions ids, empty if there is none added
+     */
+    @NotNull
+    public BitSet getRegionIds(@NotNull final RegionCache regionCache) {
+        final Set<String> regions = getRegions();
+        final CompiledRegions compiled = compiledRegions;
+        if (compiled != null && compiled.regionCache == regionCache && compiled.regions == regions) {
+            return compiled.ids;
+        }
+
+        // Compiling the regions names, in all worlds where they exist
+        final BitSet ids = new BitSet();
+        if (regions != null) {
+            final IRegionProvider provider = regionCache.getProvider();
+            for (final World world : Bukkit.getWorlds()) {
+                for (final String name : regions) {
+                    final String region = provider.getRegionName(world, name);
+                    if (region != null) {
+                        ids.set(provider.getIds().getId(world, region));
+                    }
+                }
+            }
+        }
+        compiledRegions = new CompiledRegions(regionCache, regions, ids);
+        return ids;
+    }
+
     /**
      * Trying to check if the action should be logged.
      *
@@ -249,7 +297,9 @@ public final class BanActionData {
      * Map containing players cooldowns time.
      *
      * @return map containing players cooldowns time
+     * @deprecated the cooldowns are now stored in {@link CooldownService}, this map is not used anymore
      */
+    @Deprecated
     @NotNull
     public Map<UUID, Long> getCooldowns() {
         return cooldowns;
@@ -265,4 +315,18 @@ public final class BanActionData {
         return map;
     }
 
+    /**
+     * The regions ids compiled for a regions cache.
+     */
+    private static final class CompiledRegions {
+        private final RegionCache regionCache;
+        private final Set<String> regions;
+        private final BitSet ids;
+
+        private CompiledRegions(@NotNull final RegionCache regionCache, @Nullable final Set<String> regions, @NotNull final BitSet ids) {
+            this.regionCache = regionCache;
+            this.regions = regions;
+            this.ids = ids;
+        }
+    }
 }
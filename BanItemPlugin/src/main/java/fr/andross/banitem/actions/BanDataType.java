@@ -102,7 +102,7 @@ public enum BanDataType {
 
     /**
      * Used to check if the ban applies into the region.
-     * <p>Type: Set of {@link com.sk89q.worldguard.protection.regions.ProtectedRegion}
+     * <p>Type: Set of String <i>(the regions names, see {@link BanActionData#getRegionIds(fr.andross.banitem.utils.hooks.RegionCache)} for the compiled form)</i>
      */
     REGION("region"),
 
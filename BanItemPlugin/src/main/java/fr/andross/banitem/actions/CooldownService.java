@@ -0,0 +1,189 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.actions;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores the players cooldowns of all the ban actions data.
+ * <p>The expired cooldowns are reclaimed with a timing wheel: each cooldown is queued in the slot of its
+ * expiry second, and the slots are swept while the time passes, during the next checks.
+ * Cooldowns longer than a wheel round stay queued until their round.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class CooldownService {
+    private static final long TICK = 1000L;
+    private static final int SLOTS = 512;
+    private final Map<Key, Long> cooldowns = new ConcurrentHashMap<>();
+    private final Queue<Scheduled>[] wheel;
+    private final ReentrantLock sweeping = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long lastTick = System.currentTimeMillis() / TICK;
+
+    /**
+     * Creates a new empty cooldown service.
+     */
+    @SuppressWarnings("unchecked")
+    public CooldownService() {
+        wheel = new Queue[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Check the cooldown of the player for this action data.
+     * If the player is not in cooldown, the cooldown is started. If the cooldown is over, it is removed.
+     *
+     * @param data     the ban action data
+     * @param player   the player uuid
+     * @param cooldown the cooldown duration, in milliseconds
+     * @return the end of the cooldown in milliseconds if the player is in cooldown, otherwise -1
+     */
+    public long check(@NotNull final BanActionData data, @NotNull final UUID player, final long cooldown) {
+        final long now = System.currentTimeMillis();
+        sweep(now);
+
+        final long[] end = {-1L};
+        cooldowns.compute(new Key(data, player), (k, v) -> {
+            // Not in cooldown? Adding!
+            if (v == null) {
+                final long expiry = now + cooldown;
+                wheel[(int) ((expiry / TICK) % SLOTS)].add(new Scheduled(k, expiry));
+                return expiry;
+            }
+            // Not in cooldown anymore?
+            if (v < now) {
+                evictions.increment();
+                return null;
+            }
+            end[0] = v;
+            return v;
+        });
+        return end[0];
+    }
+
+    /**
+     * Sweeping the wheel slots elapsed since the last sweep.
+     *
+     * @param now the current time
+     */
+    private void sweep(final long now) {
+        final long tick = now / TICK;
+        if (tick <= lastTick || !sweeping.tryLock()) {
+            return;
+        }
+        try {
+            final long from = Math.max(lastTick + 1, tick - SLOTS + 1);
+            for (long t = from; t <= tick; t++) {
+                final Queue<Scheduled> slot = wheel[(int) (t % SLOTS)];
+                for (int i = slot.size(); i > 0; i--) {
+                    final Scheduled s = slot.poll();
+                    if (s == null) {
+                        break;
+                    }
+                    if (s.expiry >= now) {
+                        slot.add(s); // next round
+                    } else if (cooldowns.remove(s.key, s.expiry)) {
+                        evictions.increment();
+                    }
+                }
+            }
+            lastTick = tick;
+        } finally {
+            sweeping.unlock();
+        }
+    }
+
+    /**
+     * Remove all the cooldowns.
+     */
+    public void clear() {
+        cooldowns.clear();
+        for (final Queue<Scheduled> slot : wheel) {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Get the amount of cooldowns stored.
+     *
+     * @return the amount of cooldowns stored
+     */
+    public int size() {
+        return cooldowns.size();
+    }
+
+    /**
+     * Get the amount of expired cooldowns removed.
+     *
+     * @return the amount of expired cooldowns removed
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * A cooldown key: the ban action data instance and the player.
+     */
+    private static final class Key {
+        private final BanActionData data;
+        private final UUID player;
+
+        private Key(@NotNull final BanActionData data, @NotNull final UUID player) {
+            this.data = data;
+            this.player = player;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return data == key.data && player.equals(key.player);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(data) + player.hashCode();
+        }
+    }
+
+    /**
+     * A cooldown queued in the wheel.
+     */
+    private static final class Scheduled {
+        private final Key key;
+        private final long expiry;
+
+        private Scheduled(@NotNull final Key key, final long expiry) {
+            this.key = key;
+            this.expiry = expiry;
+        }
+    }
+}
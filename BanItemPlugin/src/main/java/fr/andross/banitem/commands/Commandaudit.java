@@ -0,0 +1,135 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.commands;
+
+import fr.andross.banitem.BanItem;
+import fr.andross.banitem.utils.audit.AuditLog;
+import org.bukkit.command.CommandSender;
+import org.bukkit.util.StringUtil;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Sub command audit.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public class Commandaudit extends BanCommand {
+
+    /**
+     * Constructor of the /banitem audit command.
+     *
+     * @param plugin The ban item plugin instance
+     * @param sender The command sender
+     * @param args   The command arguments used by the command sender
+     */
+    public Commandaudit(final BanItem plugin, final CommandSender sender, final String[] args) {
+        super(plugin, sender, args);
+    }
+
+    /**
+     * Run the command.
+     */
+    @Override
+    public void run() {
+        // Permission?
+        if (!sender.hasPermission("banitem.command.audit")) {
+            sendMessage(getNoPermMessage());
+            return;
+        }
+
+        final AuditLog auditLog = plugin.getUtils().getAuditLog();
+        if (!auditLog.isEnabled()) {
+            sendHeaderMessage("&6&lAudit");
+            sendMessage("&cThe audit log is disabled in the config.");
+            return;
+        }
+
+        // Parsing arguments: /bi audit [player|item <name>] [amount]
+        String player = null;
+        String item = null;
+        int index = 1;
+        if (args.length > 2 && (args[1].equalsIgnoreCase("player") || args[1].equalsIgnoreCase("item"))) {
+            if (args[1].equalsIgnoreCase("player")) {
+                player = args[2];
+            } else {
+                item = args[2];
+            }
+            index = 3;
+        }
+        int amount = 10;
+        if (args.length > index) {
+            try {
+                amount = Math.min(100, Math.max(1, Integer.parseInt(args[index])));
+            } catch (final NumberFormatException e) {
+                sendHeaderMessage("&6&lAudit");
+                sendMessage("&7Usage: &b/bi audit [player|item <name>] [amount]");
+                return;
+            }
+        }
+
+        // Reading the files asynchronously
+        final String finalPlayer = player;
+        final String finalItem = item;
+        final int finalAmount = amount;
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<String> entries;
+            try {
+                entries = auditLog.search(finalPlayer, finalItem, finalAmount);
+            } catch (final IOException e) {
+                plugin.getLogger().warning("Can not read the audit log: " + e.getMessage());
+                entries = null;
+            }
+            final List<String> finalEntries = entries;
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                sendHeaderMessage("&6&lAudit");
+                if (finalEntries == null) {
+                    sendMessage("&cCan not read the audit log, check the console.");
+                } else if (finalEntries.isEmpty()) {
+                    sendMessage("&7No entry found.");
+                } else {
+                    for (final String entry : finalEntries) {
+                        // date, world, uuid, player, type, action, item
+                        final String[] split = entry.split("\t", 7);
+                        sendMessage("&7" + split[0] + " &e" + split[3] + " &7(" + split[1] + ") &c" + split[4] + " &6" + split[5] + " &b" + split[6]);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Run the tab completion of the command.
+     *
+     * @return the tab completion of the command.
+     */
+    @Override
+    public List<String> runTab() {
+        if (args.length == 2) {
+            return StringUtil.copyPartialMatches(args[1], Arrays.asList("player", "item"), new ArrayList<>());
+        }
+        if (args.length == 3 && args[1].equalsIgnoreCase("player")) {
+            final List<String> names = new ArrayList<>();
+            plugin.getServer().getOnlinePlayers().forEach(p -> names.add(p.getName()));
+            return StringUtil.copyPartialMatches(args[2], names, new ArrayList<>());
+        }
+        return Collections.emptyList();
+    }
+}
@@ -156,7 +156,7 @@ public class Commandmetaitem extends BanCommand {
 
                 // Adding meta item name
                 try {
-                    plugin.getBanDatabase().addMetaItem(name, item);
+                    plugin.getApi().addMetaItem(name, item);
                 } catch (final Exception e) {
                     plugin.getLogger().warning("Error during saving meta item:" + e.getMessage());
                     sendMessage("&cUnable to save metaitems.yml file.");
@@ -226,7 +226,7 @@ public class Commandmetaitem extends BanCommand {
                 // Removing meta item
                 sendHeaderMessage("&6&lMetaItems - Remove");
                 try {
-                    plugin.getBanDatabase().removeMetaItem(metaName);
+                    plugin.getApi().removeMetaItem(metaName);
                     plugin.getListener().load(sender);
                     sendMessage("&aMeta item &e" + metaName + "&a removed.");
                 } catch (Exception e) {
@@ -0,0 +1,152 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.commands;
+
+import fr.andross.banitem.BanDatabase;
+import fr.andross.banitem.BanItem;
+import fr.andross.banitem.BanUtils;
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.utils.RateLimiter;
+import fr.andross.banitem.utils.hooks.RegionCache;
+import fr.andross.banitem.utils.metrics.BanMetrics;
+import fr.andross.banitem.utils.metrics.Histogram;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sub command stats.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public class Commandstats extends BanCommand {
+
+    /**
+     * Constructor of the /banitem stats command.
+     *
+     * @param plugin The ban item plugin instance
+     * @param sender The command sender
+     * @param args   The command arguments used by the command sender
+     */
+    public Commandstats(final BanItem plugin, final CommandSender sender, final String[] args) {
+        super(plugin, sender, args);
+    }
+
+    /**
+     * Run the command.
+     */
+    @Override
+    public void run() {
+        // Permission?
+        if (!sender.hasPermission("banitem.command.stats")) {
+            sendMessage(getNoPermMessage());
+            return;
+        }
+
+        final BanUtils utils = plugin.getUtils();
+        final BanMetrics metrics = utils.getMetrics();
+        sendHeaderMessage("&6&lStats");
+
+        // Checks
+        for (final BanMetrics.Path path : BanMetrics.Path.values()) {
+            final Histogram h = metrics.getLatency(path);
+            sendMessage("&7Checks (" + path.name().toLowerCase() + "): &e" + h.getCount() + " &7avg &e" + average(h) + " &7p99 &e" + percentile(h, 0.99));
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (final BanAction action : BanAction.values()) {
+            final long checks = metrics.getChecks(action);
+            if (checks > 0) {
+                sb.append(sb.length() == 0 ? "" : "&7, ").append("&3").append(action.getName()).append(" &e").append(metrics.getBans(action)).append("&7/&e").append(checks);
+            }
+        }
+        if (sb.length() > 0) {
+            sendMessage("&7Bans/checks: " + sb);
+        }
+
+        // Scanners
+        final Histogram slices = metrics.getScan(BanMetrics.Scan.SLICE);
+        final Histogram passes = metrics.getScan(BanMetrics.Scan.PASS);
+        if (slices.getCount() > 0) {
+            sendMessage("&7Scanner: &e" + passes.getCount() + " &7passes, avg &e" + average(passes) + " &7per pass, &e" + average(slices) + " &7per tick");
+        }
+
+        // Caches
+        final BanDatabase database = plugin.getBanDatabase();
+        final long hits = database.getMatchCacheHits();
+        final long total = hits + database.getMatchCacheMisses();
+        sendMessage("&7Match cache: &e" + database.getMatchCacheSize() + " &7items, &e" + (total == 0 ? 0 : hits * 100 / total) + "% &7hits");
+        sendMessage("&7Bypass cache: &e" + utils.getBypassCache().size() + " &7players");
+        sendMessage("&7Cooldowns: &e" + utils.getCooldowns().size() + " &7active, &e" + utils.getCooldowns().getEvictions() + " &7evicted");
+        sendMessage("&7Rate limited: &e" + utils.getRateLimiter().getSuppressed(RateLimiter.Channel.MESSAGE) + " &7messages, &e"
+                + utils.getRateLimiter().getSuppressed(RateLimiter.Channel.ANIMATION) + " &7animations, &e"
+                + utils.getRateLimiter().getSuppressed(RateLimiter.Channel.LOG) + " &7logs");
+        final RegionCache regionCache = plugin.getHooks().getRegionCache();
+        if (regionCache != null) {
+            sendMessage("&7Region cache: &e" + regionCache.size() + " &7players");
+        }
+        sendMessage("&7Run queue: &e" + utils.getCommandDispatcher().getQueueDepth() + " &7pending, &e" + utils.getCommandDispatcher().getDispatched() + " &7run, &e" + utils.getCommandDispatcher().getDuplicates() + " &7duplicates, &e" + utils.getCommandDispatcher().getDropped() + " &7dropped");
+        if (utils.getAuditLog().isEnabled()) {
+            sendMessage("&7Audit log: &e" + utils.getAuditLog().getWritten() + " &7written, &e" + utils.getAuditLog().getPending() + " &7pending, &e" + utils.getAuditLog().getDropped() + " &7dropped");
+        }
+    }
+
+    /**
+     * Format the average duration of a histogram.
+     *
+     * @param h the histogram
+     * @return the formatted average duration
+     */
+    private static String average(final Histogram h) {
+        final long count = h.getCount();
+        return count == 0 ? "-" : format(h.getSum() / count);
+    }
+
+    /**
+     * Format a percentile of a histogram.
+     *
+     * @param h          the histogram
+     * @param percentile the percentile
+     * @return the formatted upper bound of the percentile
+     */
+    private static String percentile(final Histogram h, final double percentile) {
+        final long nanos = h.getPercentile(percentile);
+        return nanos < 0 ? (h.getCount() == 0 ? "-" : ">50ms") : "<" + format(nanos);
+    }
+
+    /**
+     * Format a duration.
+     *
+     * @param nanos the duration, in nanoseconds
+     * @return the formatted duration
+     */
+    private static String format(final long nanos) {
+        return nanos < 1_000_000L ? (nanos / 1000L) + "µs" : String.format("%.2fms", nanos / 1e6);
+    }
+
+    /**
+     * Run the tab completion of the command.
+     *
+     * @return the tab completion of the command.
+     */
+    @Override
+    public List<String> runTab() {
+        return Collections.emptyList();
+    }
+}
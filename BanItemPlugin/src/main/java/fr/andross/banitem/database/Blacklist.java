@@ -30,10 +30,11 @@ import fr.andross.banitem.items.BannedItem;
 import fr.andross.banitem.items.CustomBannedItem;
 import fr.andross.banitem.items.ICustomName;
 import fr.andross.banitem.utils.PlaceholderApiCondition;
+import fr.andross.banitem.utils.RateLimiter;
 import fr.andross.banitem.utils.Utils;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.debug.DebugMessage;
-import fr.andross.banitem.utils.hooks.IWorldGuardHook;
+import fr.andross.banitem.utils.hooks.RegionCache;
 import fr.andross.banitem.utils.list.ListType;
 import fr.andross.banitem.utils.list.Listable;
 import org.bukkit.GameMode;
@@ -59,6 +60,11 @@ public final class Blacklist extends HashMap<World, Items> {
      */
     private final BanItem plugin;
 
+    /**
+     * BanItem database instance.
+     */
+    private final BanDatabase database;
+
     /**
      * Constructor for a blacklist map.
      *
@@ -72,15 +78,19 @@ public final class Blacklist extends HashMap<World, Items> {
                      @NotNull final CommandSender sender,
                      @Nullable final ConfigurationSection section) {
         this.plugin = plugin;
+        this.database = database;
         if (section == null) {
             return;
         }
 
         // Loading blacklist
         final BanConfig banConfig = plugin.getBanConfig();
+        final List<CompiledEntry> entries = new ArrayList<>();
         for (final String worldKey : section.getKeys(false)) { // Looping through worlds
             // Getting world(s)
-            final List<World> worlds = Listable.getWorlds(worldKey, new Debug(banConfig, sender, new DebugMessage(banConfig.getConfigName()), new DebugMessage("blacklist"), new DebugMessage(ListType.WORLD, worldKey)));
+            final List<World> worlds = new ArrayList<>();
+            final List<Runnable> worldDebug = Debug.capture(() -> worlds.addAll(Listable.getWorlds(worldKey, new Debug(banConfig, sender, new DebugMessage(banConfig.getConfigName()), new DebugMessage("blacklist"), new DebugMessage(ListType.WORLD, worldKey)))));
+            entries.add(new CompiledEntry(worlds, worldKey, null, null).setDebug(worldDebug));
             if (worlds.isEmpty()) {
                 continue;
             }
@@ -91,32 +101,53 @@ public final class Blacklist extends HashMap<World, Items> {
                 continue;
             }
             for (final String itemKey : itemsSection.getKeys(false)) {
-                // Preparing debugger
-                final Debug d = new Debug(banConfig, sender, new DebugMessage(banConfig.getConfigName()), new DebugMessage("blacklist"), new DebugMessage(ListType.WORLD, worldKey), new DebugMessage(ListType.ITEM, itemKey));
+                entries.add(new CompiledEntry(worlds, worldKey, itemKey, itemsSection));
+            }
+        }
 
-                // Getting Item(s)
-                final List<BannedItem> items = Listable.getItems(database, itemKey, d);
-                if (items.isEmpty()) {
-                    continue;
-                }
+        // Compiling items entries
+        CompiledEntry.compileAll(entries, e -> {
+            // Preparing debugger
+            final Debug d = new Debug(banConfig, sender, new DebugMessage(banConfig.getConfigName()), new DebugMessage("blacklist"), new DebugMessage(ListType.WORLD, e.worldKey), new DebugMessage(ListType.ITEM, e.itemKey));
 
-                // Getting Actions & Actions data
-                final ConfigurationSection actionCs = itemsSection.getConfigurationSection(itemKey);
-                final Map<BanAction, BanActionData> actions = plugin.getUtils().getBanActionsFromItemSection(worlds, actionCs, d);
-                if (actions.isEmpty()) {
-                    continue;
-                }
+            // Getting Item(s)
+            final List<BannedItem> items = Listable.getItems(database, e.itemKey, d);
+            if (items.isEmpty()) {
+                return;
+            }
 
-                // Adding into the map
-                for (final World w : worlds) {
-                    for (final BannedItem item : items) {
-                        addNewBan(w, item, actions);
-                    }
+            // Getting Actions & Actions data
+            final ConfigurationSection actionCs = e.itemsSection.getConfigurationSection(e.itemKey);
+            e.actions = plugin.getUtils().getBanActionsFromItemSection(e.worlds, actionCs, d);
+            e.items = items;
+        });
+
+        // Adding into the map, in the configuration order
+        for (final CompiledEntry e : entries) {
+            e.sendDebug();
+            if (e.actions.isEmpty()) {
+                continue;
+            }
+            for (final World w : e.worlds) {
+                for (final BannedItem item : e.items) {
+                    addNewBan(w, item, e.actions);
                 }
             }
         }
     }
 
+    /**
+     * Copy constructor, used to build a new snapshot of the blacklist.
+     *
+     * @param blacklist the blacklist to copy
+     * @param database  the database instance owning the copy
+     */
+    public Blacklist(@NotNull final Blacklist blacklist, @NotNull final BanDatabase database) {
+        this.plugin = blacklist.plugin;
+        this.database = database;
+        blacklist.forEach((world, items) -> put(world, new Items(items, database.getMatchCacheSize())));
+    }
+
     /**
      * This will add a new entry to the blacklist.
      *
@@ -127,7 +158,10 @@ public final class Blacklist extends HashMap<World, Items> {
     public void addNewBan(@NotNull final World world,
                           @NotNull final BannedItem item,
                           @NotNull final Map<BanAction, BanActionData> map) {
-        final Items items = getOrDefault(world, new Items());
+        Items items = get(world);
+        if (items == null) {
+            items = new Items(database.getMatchCacheSize());
+        }
         final String customName = item instanceof ICustomName ? ((ICustomName) item).getName() : null;
         final CustomBannedItem customBannedItem = item instanceof CustomBannedItem ? (CustomBannedItem) item : null;
         final Map<BanAction, BanActionData> bannedItemMap = customBannedItem != null ? items.getCustomItems().getOrDefault(customBannedItem, new EnumMap<>(BanAction.class)) : items.getItems().getOrDefault(item, new EnumMap<>(BanAction.class));
@@ -145,11 +179,13 @@ public final class Blacklist extends HashMap<World, Items> {
 
         if (customBannedItem != null) {
             items.getCustomItems().put(customBannedItem, bannedItemMap);
+            items.invalidateIndex();
         } else {
             items.getItems().put(item, bannedItemMap);
         }
 
         put(world, items);
+        database.invalidateVerdicts();
     }
 
     /**
@@ -217,12 +253,14 @@ public final class Blacklist extends HashMap<World, Items> {
 
             // Checking region data?
             if (dataMap.containsKey(BanDataType.REGION)) {
-                final IWorldGuardHook hook = plugin.getHooks().getWorldGuardHook();
-                if (hook != null) {
-                    final Set<com.sk89q.worldguard.protection.regions.ProtectedRegion> regions = blacklistData.getData(BanDataType.REGION);
-                    if (regions != null && !regions.isEmpty()) {
-                        final Set<com.sk89q.worldguard.protection.regions.ProtectedRegion> standingRegions = hook.getStandingRegions(location == null ? player.getLocation() : location);
-                        if (regions.stream().noneMatch(standingRegions::contains)) {
+                final RegionCache regionCache = plugin.getHooks().getRegionCache();
+                if (regionCache != null) {
+                    final BitSet regions = blacklistData.getRegionIds(regionCache);
+                    if (!regions.isEmpty()) {
+                        final BitSet standingRegions = location == null ?
+                                regionCache.getStandingRegions(player.getUniqueId(), player.getLocation()) :
+                                regionCache.getStandingRegions(null, location);
+                        if (!regions.intersects(standingRegions)) {
                             return false;
                         }
                     }
@@ -233,20 +271,10 @@ public final class Blacklist extends HashMap<World, Items> {
             long playerCooldown = -1L;
             if (dataMap.containsKey(BanDataType.COOLDOWN)) {
                 final long cooldown = (long) dataMap.get(BanDataType.COOLDOWN);
-                final Map<UUID, Long> cooldowns = blacklistData.getCooldowns();
 
-                // Not in cooldown? Adding!
-                if (!cooldowns.containsKey(player.getUniqueId())) {
-                    cooldowns.put(player.getUniqueId(), System.currentTimeMillis() + cooldown);
-                    return false;
-                }
-
-                // Checking cooldown
-                playerCooldown = cooldowns.get(player.getUniqueId());
-
-                // Not in cooldown anymore?
-                if (playerCooldown < System.currentTimeMillis()) {
-                    cooldowns.remove(player.getUniqueId()); // not in cooldown anymore, cleaning up'
+                // Not in cooldown, or not anymore?
+                playerCooldown = plugin.getUtils().getCooldowns().check(blacklistData, player.getUniqueId(), cooldown);
+                if (playerCooldown < 0) {
                     return false;
                 }
             }
@@ -294,7 +322,7 @@ public final class Blacklist extends HashMap<World, Items> {
             if (sendMessage) {
                 if (playerCooldown > 0) {
                     final List<String> message = blacklistData.getData(BanDataType.MESSAGE);
-                    if (message != null) {
+                    if (message != null && plugin.getUtils().getRateLimiter().tryAcquire(player, action, RateLimiter.Channel.MESSAGE)) {
                         final long finalCooldown = playerCooldown;
                         message.stream().map(m -> m.replace("{time}", plugin.getUtils().getCooldownString(finalCooldown - System.currentTimeMillis()))).forEach(player::sendMessage);
                     }
@@ -307,19 +335,11 @@ public final class Blacklist extends HashMap<World, Items> {
             if (dataMap.containsKey(BanDataType.RUN)) {
                 final List<String> commands = blacklistData.getData(BanDataType.RUN);
                 if (commands != null) {
-                    for (final String command : commands) {
-                        String commandWithPlaceholderReplaced = command.replace("{player}", player.getName())
-                                .replace("{world}", player.getWorld().getName())
-                                .replace("{itemname}", itemName);
-
-                        if (plugin.getHooks().isPlaceholderApiEnabled()) {
-                            commandWithPlaceholderReplaced = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, commandWithPlaceholderReplaced);
-                        }
-
-                        plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(), commandWithPlaceholderReplaced);
-                    }
+                    plugin.getUtils().getCommandDispatcher().submit(player, itemName, commands);
                 }
             }
+
+            plugin.getUtils().getAuditLog().record(player, "blacklist", action, itemName);
             return true;
         }
 
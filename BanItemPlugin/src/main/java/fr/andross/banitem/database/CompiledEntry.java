@@ -0,0 +1,100 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.database;
+
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.actions.BanActionData;
+import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.utils.debug.Debug;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An item entry of the blacklist or whitelist section, compiled then merged in the configuration order.
+ * <p>The entries are compiled on the calling thread: resolving the worlds, materials, regions and
+ * hooked meta comparators uses the Bukkit and hooked plugins apis, which are not thread safe.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+final class CompiledEntry {
+    final List<World> worlds;
+    final String worldKey;
+    final String itemKey;
+    final ConfigurationSection itemsSection;
+    List<BannedItem> items = Collections.emptyList();
+    Map<BanAction, BanActionData> actions = Collections.emptyMap();
+    private List<Runnable> debug = Collections.emptyList();
+
+    /**
+     * Preparing an entry to compile.
+     *
+     * @param worlds       the worlds of the entry
+     * @param worldKey     the world key in the section
+     * @param itemKey      the item key in the section, null if this entry only holds the world debug messages
+     * @param itemsSection the section containing the item key
+     */
+    CompiledEntry(@NotNull final List<World> worlds,
+                  @NotNull final String worldKey,
+                  @Nullable final String itemKey,
+                  @Nullable final ConfigurationSection itemsSection) {
+        this.worlds = worlds;
+        this.worldKey = worldKey;
+        this.itemKey = itemKey;
+        this.itemsSection = itemsSection;
+    }
+
+    /**
+     * Set the debug messages captured while preparing this entry.
+     *
+     * @param debug the captured debug messages
+     * @return this object
+     */
+    @NotNull
+    CompiledEntry setDebug(@NotNull final List<Runnable> debug) {
+        this.debug = debug;
+        return this;
+    }
+
+    /**
+     * Send the debug messages captured while compiling this entry.
+     */
+    void sendDebug() {
+        debug.forEach(Runnable::run);
+    }
+
+    /**
+     * Compiling all the entries.
+     * The debug messages of each entry are captured, to be sent when merging the entries in order.
+     *
+     * @param entries  the entries to compile
+     * @param compiler the function compiling one entry
+     */
+    static void compileAll(@NotNull final List<CompiledEntry> entries, @NotNull final Consumer<CompiledEntry> compiler) {
+        entries.stream()
+                .filter(e -> e.itemKey != null)
+                .forEach(e -> e.debug = Debug.capture(() -> compiler.accept(e)));
+    }
+}
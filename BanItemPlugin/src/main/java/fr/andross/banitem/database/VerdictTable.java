@@ -0,0 +1,182 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.database;
+
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.actions.BanActionData;
+import fr.andross.banitem.actions.BanDataType;
+import fr.andross.banitem.database.items.Items;
+import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.CustomBannedItem;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A compiled, read-only view of the blacklist and whitelist, indexed by
+ * {@link Material#ordinal()} and {@link BanAction#ordinal()}.
+ * <p>Each cell gives the merged verdict for an item without meta, when it can be known without
+ * running the full checks: {@link #ALLOWED}, {@link #DENIED} <i>(not whitelisted)</i>
+ * or {@link #CHECK} when the full blacklist/whitelist checks must be run.</p>
+ * <p>Materials targeted by a meta or custom item are always {@link #CHECK}, as well as any
+ * action carrying data that must be evaluated <i>(gamemode, region, cooldown, run...)</i>.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class VerdictTable {
+    /**
+     * The item is neither blacklisted nor refused by a whitelist.
+     */
+    public static final byte ALLOWED = 0;
+
+    /**
+     * The item is not listed in the whitelist of the world.
+     */
+    public static final byte DENIED = 1;
+
+    /**
+     * The full checks must be run.
+     */
+    public static final byte CHECK = 2;
+
+    /**
+     * Data types which do not change the whitelist result when present.
+     */
+    private static final Set<BanDataType> PLAIN_DATA = EnumSet.of(BanDataType.CUSTOMNAME,
+            BanDataType.LOG,
+            BanDataType.MESSAGE,
+            BanDataType.PERMISSION,
+            BanDataType.PLACEHOLDERAPI_CONDITION);
+
+    private static final BanAction[] ACTIONS = BanAction.values();
+    private final Map<World, byte[]> worlds = new HashMap<>();
+
+    /**
+     * Compiling the verdict table.
+     *
+     * @param blacklist          the blacklist
+     * @param whitelist          the whitelist
+     * @param playerBanItemEvent if the {@link fr.andross.banitem.events.PlayerBanItemEvent} is called
+     */
+    public VerdictTable(@NotNull final Blacklist blacklist,
+                        @NotNull final Whitelist whitelist,
+                        final boolean playerBanItemEvent) {
+        final Set<World> keys = new HashSet<>(blacklist.keySet());
+        keys.addAll(whitelist.keySet());
+        final int size = Material.values().length * ACTIONS.length;
+
+        for (final World world : keys) {
+            final byte[] table = new byte[size];
+
+            // Whitelist: everything not listed is denied, except ignored actions
+            final WhitelistedWorld ww = whitelist.get(world);
+            if (ww != null) {
+                for (final BanAction action : ACTIONS) {
+                    if (!ww.getIgnored().contains(action)) {
+                        for (int i = action.ordinal(); i < size; i += ACTIONS.length) {
+                            table[i] = DENIED;
+                        }
+                    }
+                }
+                for (final Map.Entry<BannedItem, Map<BanAction, BanActionData>> e : ww.getItems().entrySet()) {
+                    if (!isPlainItem(e.getKey())) {
+                        continue;
+                    }
+                    for (final Map.Entry<BanAction, BanActionData> action : e.getValue().entrySet()) {
+                        if (!ww.getIgnored().contains(action.getKey())) {
+                            final boolean plain = !playerBanItemEvent && PLAIN_DATA.containsAll(action.getValue().getMap().keySet());
+                            table[index(e.getKey().getType(), action.getKey())] = plain ? ALLOWED : CHECK;
+                        }
+                    }
+                }
+                markCheck(table, ww);
+            }
+
+            // Blacklist: any listed action must be fully checked
+            final Items items = blacklist.get(world);
+            if (items != null) {
+                for (final Map.Entry<BannedItem, Map<BanAction, BanActionData>> e : items.getItems().entrySet()) {
+                    if (isPlainItem(e.getKey())) {
+                        for (final BanAction action : e.getValue().keySet()) {
+                            table[index(e.getKey().getType(), action)] = CHECK;
+                        }
+                    }
+                }
+                markCheck(table, items);
+            }
+
+            worlds.put(world, table);
+        }
+    }
+
+    /**
+     * Marking all materials targeted by a meta or custom item to be fully checked.
+     *
+     * @param table the world table
+     * @param items the items of the world
+     */
+    private void markCheck(final byte[] table, @NotNull final Items items) {
+        for (final BannedItem item : items.getItems().keySet()) {
+            if (!isPlainItem(item)) {
+                Arrays.fill(table, index(item.getType(), ACTIONS[0]), index(item.getType(), ACTIONS[0]) + ACTIONS.length, CHECK);
+            }
+        }
+        for (final CustomBannedItem item : items.getCustomItems().keySet()) {
+            for (final Material m : item.getMaterials()) {
+                Arrays.fill(table, index(m, ACTIONS[0]), index(m, ACTIONS[0]) + ACTIONS.length, CHECK);
+            }
+        }
+    }
+
+    /**
+     * Check if the item is a simple material item, without meta nor data.
+     *
+     * @param item the item
+     * @return true if the item only represents its material
+     */
+    private static boolean isPlainItem(@NotNull final BannedItem item) {
+        return item.getItemMeta() == null && item.getData() == 0;
+    }
+
+    /**
+     * Get the index of the cell in a world table.
+     *
+     * @param material the material
+     * @param action   the action
+     * @return the index of the cell
+     */
+    private static int index(@NotNull final Material material, @NotNull final BanAction action) {
+        return material.ordinal() * ACTIONS.length + action.ordinal();
+    }
+
+    /**
+     * Get the compiled verdict for this material and this action in this world.
+     *
+     * @param world    the world
+     * @param material the material
+     * @param action   the action
+     * @return {@link #ALLOWED}, {@link #DENIED} or {@link #CHECK}
+     */
+    public byte get(@NotNull final World world, @NotNull final Material material, @NotNull final BanAction action) {
+        final byte[] table = worlds.get(world);
+        return table == null ? ALLOWED : table[index(material, action)];
+    }
+}
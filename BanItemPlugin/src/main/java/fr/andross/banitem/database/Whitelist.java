@@ -17,7 +17,6 @@
  */
 package fr.andross.banitem.database;
 
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import fr.andross.banitem.BanConfig;
 import fr.andross.banitem.BanDatabase;
 import fr.andross.banitem.BanItem;
@@ -32,7 +31,7 @@ import fr.andross.banitem.utils.PlaceholderApiCondition;
 import fr.andross.banitem.utils.Utils;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.debug.DebugMessage;
-import fr.andross.banitem.utils.hooks.IWorldGuardHook;
+import fr.andross.banitem.utils.hooks.RegionCache;
 import fr.andross.banitem.utils.list.ListType;
 import fr.andross.banitem.utils.list.Listable;
 import org.bukkit.GameMode;
@@ -59,6 +58,11 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
      */
     private final BanItem plugin;
 
+    /**
+     * BanItem database instance.
+     */
+    private final BanDatabase database;
+
     /**
      * Constructor for a whitelist map.
      *
@@ -72,14 +76,18 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
                      @NotNull final CommandSender sender,
                      @Nullable final ConfigurationSection section) {
         this.plugin = plugin;
+        this.database = database;
         if (section == null) {
             return;
         }
 
         final BanConfig banConfig = plugin.getBanConfig();
+        final List<CompiledEntry> entries = new ArrayList<>();
         for (final String worldKey : section.getKeys(false)) { // Looping through worlds
             // Checking the world
-            final List<World> worlds = Listable.getWorlds(worldKey, new Debug(banConfig, sender, new DebugMessage(null, banConfig.getConfigName()), new DebugMessage(null, "whitelist")));
+            final List<World> worlds = new ArrayList<>();
+            final List<Runnable> worldDebug = Debug.capture(() -> worlds.addAll(Listable.getWorlds(worldKey, new Debug(banConfig, sender, new DebugMessage(null, banConfig.getConfigName()), new DebugMessage(null, "whitelist")))));
+            entries.add(new CompiledEntry(worlds, worldKey, null, null).setDebug(worldDebug));
             if (worlds.isEmpty()) {
                 continue;
             }
@@ -89,72 +97,110 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
             if (itemsSection == null) {
                 continue;
             }
-
-            List<String> messages = null;
-            List<BanAction> ignored = null;
             for (final String itemKey : itemsSection.getKeys(false)) {
-                // Preparing debugger
-                final Debug d = new Debug(banConfig, sender, new DebugMessage(null, banConfig.getConfigName()), new DebugMessage(null, "whitelist"), new DebugMessage(ListType.WORLD, worldKey), new DebugMessage(ListType.ITEM, itemKey));
-
-                // Blocked message?
-                if (itemKey.equalsIgnoreCase("message")) {
-                    final List<String> message = Listable.getStringList(itemsSection.get(itemKey));
-                    if (message.isEmpty()) {
-                        continue;
-                    }
-                    messages = message.stream().filter(Objects::nonNull).map(Chat::color).collect(Collectors.toList());
-                    continue;
-                }
+                entries.add(new CompiledEntry(worlds, worldKey, itemKey, itemsSection));
+            }
+        }
 
-                // Ignored options?
-                if (itemKey.equalsIgnoreCase("ignored")) {
-                    final List<String> ignoredOptions = Listable.getStringList(itemsSection.get(itemKey));
-                    if (ignoredOptions.isEmpty()) {
-                        continue;
-                    }
-                    ignored = Listable.getList(ListType.ACTION, Listable.splitToList(ignoredOptions), d);
-                    continue;
-                }
+        // Compiling items entries
+        CompiledEntry.compileAll(entries, e -> {
+            // World options, loaded in order
+            if (e.itemKey.equalsIgnoreCase("message") || e.itemKey.equalsIgnoreCase("ignored")) {
+                return;
+            }
 
-                // Getting items
-                final List<BannedItem> items = Listable.getItems(database, itemKey, d);
-                if (items.isEmpty()) {
-                    continue;
+            // Preparing debugger
+            final Debug d = new Debug(banConfig, sender, new DebugMessage(null, banConfig.getConfigName()), new DebugMessage(null, "whitelist"), new DebugMessage(ListType.WORLD, e.worldKey), new DebugMessage(ListType.ITEM, e.itemKey));
+
+            // Getting items
+            final List<BannedItem> items = Listable.getItems(database, e.itemKey, d);
+            if (items.isEmpty()) {
+                return;
+            }
+
+            // Getting options for the item
+            final Map<BanAction, BanActionData> actions = new EnumMap<>(BanAction.class);
+            final ConfigurationSection actionsSection = e.itemsSection.getConfigurationSection(e.itemKey);
+            if (actionsSection == null) {
+                final String optionsNames = e.itemsSection.getString(e.itemKey);
+                if (optionsNames == null) {
+                    return;
                 }
+                final List<BanAction> actionsList = Listable.getList(ListType.ACTION, optionsNames, d);
+                if (actionsList.isEmpty()) {
+                    return;
+                }
+                for (final BanAction action : actionsList) {
+                    actions.put(action, new BanActionData());
+                }
+            } else {
+                actions.putAll(plugin.getUtils().getBanActionsFromItemSection(e.worlds, actionsSection, d));
+            }
+            e.actions = actions;
+            e.items = items;
+        });
+
+        // Adding into the map, in the configuration order
+        String worldKey = null;
+        List<String> messages = null;
+        List<BanAction> ignored = null;
+        for (final CompiledEntry e : entries) {
+            e.sendDebug();
+            if (e.itemKey == null) {
+                continue;
+            }
 
-                // Getting options for the item
-                final Map<BanAction, BanActionData> actions = new EnumMap<>(BanAction.class);
-                final ConfigurationSection actionsSection = itemsSection.getConfigurationSection(itemKey);
-                if (actionsSection == null) {
-                    final String optionsNames = itemsSection.getString(itemKey);
-                    if (optionsNames == null) {
-                        continue;
-                    }
-                    final List<BanAction> actionsList = Listable.getList(ListType.ACTION, optionsNames, d);
-                    if (actionsList.isEmpty()) {
-                        continue;
-                    }
-                    for (final BanAction action : actionsList) {
-                        actions.put(action, new BanActionData());
-                    }
-                } else {
-                    actions.putAll(plugin.getUtils().getBanActionsFromItemSection(worlds, actionsSection, d));
+            // New world?
+            if (!e.worldKey.equals(worldKey)) {
+                worldKey = e.worldKey;
+                messages = null;
+                ignored = null;
+            }
+
+            // Blocked message?
+            if (e.itemKey.equalsIgnoreCase("message")) {
+                final List<String> message = Listable.getStringList(e.itemsSection.get(e.itemKey));
+                if (message.isEmpty()) {
+                    continue;
                 }
+                messages = message.stream().filter(Objects::nonNull).map(Chat::color).collect(Collectors.toList());
+                continue;
+            }
 
-                if (actions.isEmpty()) {
+            // Ignored options?
+            if (e.itemKey.equalsIgnoreCase("ignored")) {
+                final List<String> ignoredOptions = Listable.getStringList(e.itemsSection.get(e.itemKey));
+                if (ignoredOptions.isEmpty()) {
                     continue;
                 }
+                final Debug d = new Debug(banConfig, sender, new DebugMessage(null, banConfig.getConfigName()), new DebugMessage(null, "whitelist"), new DebugMessage(ListType.WORLD, e.worldKey), new DebugMessage(ListType.ITEM, e.itemKey));
+                ignored = Listable.getList(ListType.ACTION, Listable.splitToList(ignoredOptions), d);
+                continue;
+            }
 
-                // Adding into the map
-                for (final World w : worlds) {
-                    for (final BannedItem item : items) {
-                        addNewException(getOrCreateWhitelistedWorld(w, messages, ignored), item, actions);
-                    }
+            if (e.actions.isEmpty()) {
+                continue;
+            }
+            for (final World w : e.worlds) {
+                for (final BannedItem item : e.items) {
+                    addNewException(getOrCreateWhitelistedWorld(w, messages, ignored), item, e.actions);
                 }
             }
         }
     }
 
+    /**
+     * Copy constructor, used to build a new snapshot of the whitelist.
+     *
+     * @param whitelist the whitelist to copy
+     * @param database  the database instance owning the copy
+     */
+    public Whitelist(@NotNull final Whitelist whitelist, @NotNull final BanDatabase database) {
+        this.plugin = whitelist.plugin;
+        this.database = database;
+        whitelist.forEach((world, ww) -> put(world, new WhitelistedWorld(ww, database.getMatchCacheSize())));
+    }
+
     /**
      * This method will create a new whitelisted world, and add/replace it into the map.
      *
@@ -167,8 +213,9 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
     public WhitelistedWorld createNewWhitelistedWorld(@NotNull final World world,
                                                       @Nullable final List<String> messages,
                                                       @Nullable final List<BanAction> ignored) {
-        final WhitelistedWorld ww = new WhitelistedWorld(world, messages, ignored);
+        final WhitelistedWorld ww = new WhitelistedWorld(world, messages, ignored, database.getMatchCacheSize());
         put(world, ww);
+        database.invalidateVerdicts();
         return ww;
     }
 
@@ -198,6 +245,7 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
                                 @NotNull final Map<BanAction, BanActionData> actions) {
         ww.addNewEntry(item, actions);
         put(ww.getWorld(), ww);
+        database.invalidateVerdicts();
     }
 
     /**
@@ -253,21 +301,25 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
                         if (sendMessage) {
                             plugin.getUtils().sendMessage(player, itemName, action, whitelisted);
                         }
+                        plugin.getUtils().getAuditLog().record(player, "whitelist", action, itemName);
                         return false;
                     }
                 }
 
                 // Checking region data?
                 if (whitelisted.getMap().containsKey(BanDataType.REGION)) {
-                    final IWorldGuardHook hook = plugin.getHooks().getWorldGuardHook();
-                    if (hook != null) {
-                        final Set<ProtectedRegion> regions = whitelisted.getData(BanDataType.REGION);
-                        if (regions != null && !regions.isEmpty()) {
-                            final Set<ProtectedRegion> standingRegions = hook.getStandingRegions(location == null ? player.getLocation() : location);
-                            if (regions.stream().noneMatch(standingRegions::contains)) {
+                    final RegionCache regionCache = plugin.getHooks().getRegionCache();
+                    if (regionCache != null) {
+                        final BitSet regions = whitelisted.getRegionIds(regionCache);
+                        if (!regions.isEmpty()) {
+                            final BitSet standingRegions = location == null ?
+                                    regionCache.getStandingRegions(player.getUniqueId(), player.getLocation()) :
+                                    regionCache.getStandingRegions(null, location);
+                            if (!regions.intersects(standingRegions)) {
                                 if (sendMessage) {
                                     plugin.getUtils().sendMessage(player, itemName, action, whitelisted);
                                 }
+                                plugin.getUtils().getAuditLog().record(player, "whitelist", action, itemName);
                                 return false;
                             }
                         }
@@ -277,20 +329,9 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
                 // Checking cooldown?
                 if (whitelisted.getMap().containsKey(BanDataType.COOLDOWN)) {
                     final long cooldown = (long) whitelisted.getMap().get(BanDataType.COOLDOWN);
-                    final Map<UUID, Long> cooldowns = whitelisted.getCooldowns();
-
-                    // Not in cooldown? Adding!
-                    if (!cooldowns.containsKey(player.getUniqueId())) {
-                        cooldowns.put(player.getUniqueId(), System.currentTimeMillis() + cooldown);
-                        return true;
-                    }
-
-                    // Checking cooldown
-                    final long playerCooldown = cooldowns.get(player.getUniqueId());
 
-                    // Not in cooldown anymore?
-                    if (playerCooldown < System.currentTimeMillis()) {
-                        cooldowns.remove(player.getUniqueId()); // not in cooldown anymore, cleaning up'
+                    // Not in cooldown, or not anymore?
+                    if (plugin.getUtils().getCooldowns().check(whitelisted, player.getUniqueId(), cooldown) < 0) {
                         return true;
                     }
                 }
@@ -313,24 +354,18 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
                             whitelisted,
                             data);
                     plugin.getServer().getPluginManager().callEvent(e);
-                    return !e.isCancelled();
+                    if (e.isCancelled()) {
+                        plugin.getUtils().getAuditLog().record(player, "whitelist", action, itemName);
+                        return false;
+                    }
+                    return true;
                 }
 
                 // Run?
                 if (whitelisted.getMap().containsKey(BanDataType.RUN)) {
                     final List<String> commands = whitelisted.getData(BanDataType.RUN);
                     if (commands != null) {
-                        for (final String command : commands) {
-                            String commandWithPlaceholderReplaced = command.replace("{player}", player.getName())
-                                    .replace("{world}", player.getWorld().getName())
-                                    .replace("{itemname}", itemName);
-
-                            if (plugin.getHooks().isPlaceholderApiEnabled()) {
-                                commandWithPlaceholderReplaced = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, commandWithPlaceholderReplaced);
-                            }
-
-                            plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(), commandWithPlaceholderReplaced);
-                        }
+                        plugin.getUtils().getCommandDispatcher().submit(player, itemName, commands);
                     }
                 }
 
@@ -341,6 +376,7 @@ public class Whitelist extends HashMap<World, WhitelistedWorld> {
         if (sendMessage) {
             plugin.getUtils().sendMessage(player, action, ww.getMessages());
         }
+        plugin.getUtils().getAuditLog().record(player, "whitelist", action, item.getType().name().toLowerCase(Locale.ROOT));
         return false;
     }
 
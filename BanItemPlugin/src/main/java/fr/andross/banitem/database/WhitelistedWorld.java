@@ -52,6 +52,23 @@ public final class WhitelistedWorld extends Items {
     public WhitelistedWorld(@NotNull final World world,
                             @Nullable final List<String> messages,
                             @Nullable final List<BanAction> ignored) {
+        this(world, messages, ignored, 0);
+    }
+
+    /**
+     * This constructor should not be used like this <i>(as it will not been stored into the Whitelist map)</i>
+     * Use {@link Whitelist#createNewWhitelistedWorld(World, List, List)} instead.
+     *
+     * @param world          bukkit world
+     * @param messages       list of messages to send if the item is not allowed
+     * @param ignored        list of ignored actions
+     * @param matchCacheSize the maximum amount of custom items matches cached, 0 to disable the cache
+     */
+    public WhitelistedWorld(@NotNull final World world,
+                            @Nullable final List<String> messages,
+                            @Nullable final List<BanAction> ignored,
+                            final int matchCacheSize) {
+        super(matchCacheSize);
         this.world = world;
         if (messages != null) {
             this.messages.addAll(messages);
@@ -61,6 +78,19 @@ public final class WhitelistedWorld extends Items {
         }
     }
 
+    /**
+     * Copy constructor, the copy can be edited without affecting the copied whitelisted world.
+     *
+     * @param ww             the whitelisted world to copy
+     * @param matchCacheSize the maximum amount of custom items matches cached, 0 to disable the cache
+     */
+    public WhitelistedWorld(@NotNull final WhitelistedWorld ww, final int matchCacheSize) {
+        super(ww, matchCacheSize);
+        this.world = ww.world;
+        this.messages.addAll(ww.messages);
+        this.ignored.addAll(ww.ignored);
+    }
+
     /**
      * This will add a new entry to the whitelist.
      *
@@ -86,6 +116,7 @@ public final class WhitelistedWorld extends Items {
 
         if (customBannedItem != null) {
             customItems.put(customBannedItem, bannedItemMap);
+            invalidateIndex();
         } else {
             items.put(item, bannedItemMap);
         }
@@ -0,0 +1,165 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.database.items;
+
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.actions.BanActionData;
+import fr.andross.banitem.items.CustomBannedItem;
+import fr.andross.banitem.items.ItemFacts;
+import fr.andross.banitem.items.meta.MetaType;
+import fr.andross.banitem.items.meta.MetaTypeComparator;
+import fr.andross.banitem.items.meta.TextMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The custom items which can match a material, in the custom items map order.
+ * When there are enough candidates, they are indexed by the value of the equality meta
+ * <i>(model data, ItemsAdder id, display name or lore equals)</i> shared by most of them,
+ * so only the candidates with the same value as the item are checked.
+ * <p>Their display name and lore comparators are also evaluated together, with a {@link TextMatcher}.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+final class CustomItemCandidates {
+    private static final int INDEX_THRESHOLD = 8;
+    private static final int[] NONE = new int[0];
+    private final List<Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>>> candidates = new ArrayList<>();
+    private MetaTypeComparator indexComparator;
+    private Map<Object, int[]> indexed;
+    private int[] unindexed;
+    private TextMatcher textMatcher;
+
+    /**
+     * Add a candidate, after the previous ones.
+     *
+     * @param entry the custom item entry
+     */
+    void add(@NotNull final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> entry) {
+        candidates.add(entry);
+    }
+
+    /**
+     * Building the equality index, if there are enough candidates.
+     *
+     * @return this object
+     */
+    @NotNull
+    CustomItemCandidates build() {
+        if (candidates.size() < INDEX_THRESHOLD) {
+            return this;
+        }
+
+        // Text comparators
+        final TextMatcher matcher = new TextMatcher(candidates.stream()
+                .flatMap(e -> e.getKey().getMeta().values().stream())
+                .collect(Collectors.toList()));
+        if (matcher.size() >= INDEX_THRESHOLD) {
+            textMatcher = matcher;
+        }
+
+        // Choosing the equality meta shared by most candidates
+        final int[] counts = new int[MetaType.values().length];
+        for (final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> e : candidates) {
+            if (e.getKey().isReverted()) {
+                continue; // a reverted item matches when the meta does not
+            }
+            e.getKey().getMeta().forEach((type, comparator) -> {
+                if (comparator.getIndexKeys() != null) {
+                    counts[type.ordinal()]++;
+                }
+            });
+        }
+        int best = 0;
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] > counts[best]) {
+                best = i;
+            }
+        }
+        if (counts[best] < INDEX_THRESHOLD) {
+            return this;
+        }
+        final MetaType type = MetaType.values()[best];
+
+        // Indexing
+        final Map<Object, List<Integer>> byKey = new HashMap<>();
+        final List<Integer> others = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            final CustomBannedItem item = candidates.get(i).getKey();
+            final MetaTypeComparator comparator = item.isReverted() ? null : item.getMeta().get(type);
+            final Set<?> keys = comparator == null ? null : comparator.getIndexKeys();
+            if (keys == null) {
+                others.add(i);
+                continue;
+            }
+            if (indexComparator == null) {
+                indexComparator = comparator;
+            }
+            for (final Object key : keys) {
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        indexed = new HashMap<>();
+        byKey.forEach((k, v) -> indexed.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+        unindexed = others.stream().mapToInt(Integer::intValue).toArray();
+        return this;
+    }
+
+    /**
+     * Find the first candidate matching the item.
+     *
+     * @param facts the facts of the item
+     * @return the first matching custom item entry, or null if none matches
+     */
+    @Nullable
+    Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> find(@NotNull final ItemFacts facts) {
+        // Not indexed?
+        if (indexed == null) {
+            if (textMatcher != null) {
+                textMatcher.match(facts);
+            }
+            for (final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> e : candidates) {
+                if (e.getKey().matches(facts)) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        // Merging the candidates with the same value, and those not indexed, in order
+        final Object key = indexComparator.getIndexKey(facts);
+        final int[] sameKey = key == null ? NONE : indexed.getOrDefault(key, NONE);
+        if (textMatcher != null && sameKey.length + unindexed.length >= INDEX_THRESHOLD) {
+            textMatcher.match(facts);
+        }
+        int i = 0;
+        int j = 0;
+        while (i < sameKey.length || j < unindexed.length) {
+            final int next = j >= unindexed.length || (i < sameKey.length && sameKey[i] < unindexed[j]) ? sameKey[i++] : unindexed[j++];
+            final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> e = candidates.get(next);
+            if (e.getKey().matches(facts)) {
+                return e;
+            }
+        }
+        return null;
+    }
+}
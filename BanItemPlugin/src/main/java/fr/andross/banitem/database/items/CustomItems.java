@@ -59,11 +59,22 @@ public final class CustomItems extends DoubleMap<String, CustomBannedItem> {
      * @param sender the sender who executed this command, for debug
      */
     public CustomItems(@NotNull final BanItem plugin, @NotNull final CommandSender sender) {
+        this(plugin, sender, loadConfiguration(plugin));
+    }
+
+    /**
+     * This will create a new instance of custom items map, with the items from the <i>customitems.yml</i>
+     * configuration already read.
+     * This should not be used externally, as it could create two different instance of this object.
+     * You should use {@link fr.andross.banitem.BanItemAPI#load(CommandSender, File)} instead.
+     *
+     * @param plugin main instance
+     * @param sender the sender who executed this command, for debug
+     * @param config the configuration read from the <i>customitems.yml</i> file
+     */
+    public CustomItems(@NotNull final BanItem plugin, @NotNull final CommandSender sender, @NotNull final FileConfiguration config) {
         this.file = new File(plugin.getDataFolder(), "customitems.yml");
-        if (!file.exists()) {
-            plugin.saveResource("customitems.yml", false);
-        }
-        this.config = YamlConfiguration.loadConfiguration(file);
+        this.config = config;
 
         // Loading custom items
         for (final String key : config.getKeys(false)) {
@@ -79,6 +90,21 @@ public final class CustomItems extends DoubleMap<String, CustomBannedItem> {
         }
     }
 
+    /**
+     * Read the <i>customitems.yml</i> file, creating it if missing.
+     *
+     * @param plugin main instance
+     * @return the configuration read
+     */
+    @NotNull
+    private static FileConfiguration loadConfiguration(@NotNull final BanItem plugin) {
+        final File file = new File(plugin.getDataFolder(), "customitems.yml");
+        if (!file.exists()) {
+            plugin.saveResource("customitems.yml", false);
+        }
+        return YamlConfiguration.loadConfiguration(file);
+    }
+
     /**
      * Represents the file "customitems.yml".
      *
@@ -21,6 +21,8 @@ import fr.andross.banitem.actions.BanAction;
 import fr.andross.banitem.actions.BanActionData;
 import fr.andross.banitem.items.BannedItem;
 import fr.andross.banitem.items.CustomBannedItem;
+import fr.andross.banitem.items.ItemFacts;
+import org.bukkit.Material;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
@@ -44,10 +46,58 @@ public class Items {
      */
     protected final Map<CustomBannedItem, Map<BanAction, BanActionData>> customItems = new HashMap<>();
 
+    /**
+     * Custom items indexed by the materials they can match, in the custom items map order.
+     * Built on first use, and again after {@link #invalidateIndex()}.
+     */
+    private volatile Map<Material, CustomItemCandidates> customItemsIndex;
+
+    /**
+     * Cache of the custom items matches.
+     */
+    private final MatchCache matchCache;
+
+    /**
+     * Constructor, without custom items matches cache.
+     */
+    public Items() {
+        this(0);
+    }
+
     /**
      * Constructor
+     *
+     * @param matchCacheSize the maximum amount of custom items matches cached, 0 to disable the cache
      */
-    public Items() {}
+    public Items(final int matchCacheSize) {
+        this.matchCache = new MatchCache(matchCacheSize);
+    }
+
+    /**
+     * Copy constructor, the actions maps are copied so the copy can be edited safely.
+     * The custom items index and matches cache are not copied.
+     *
+     * @param items          the items to copy
+     * @param matchCacheSize the maximum amount of custom items matches cached, 0 to disable the cache
+     */
+    public Items(@NotNull final Items items, final int matchCacheSize) {
+        this(matchCacheSize);
+        items.items.forEach((k, v) -> this.items.put(k, copy(v)));
+        items.customItems.forEach((k, v) -> this.customItems.put(k, copy(v)));
+    }
+
+    /**
+     * Copy an actions map.
+     *
+     * @param map the actions map
+     * @return a copy of the actions map
+     */
+    @NotNull
+    private static Map<BanAction, BanActionData> copy(@NotNull final Map<BanAction, BanActionData> map) {
+        final Map<BanAction, BanActionData> copy = new EnumMap<>(BanAction.class);
+        copy.putAll(map);
+        return copy;
+    }
 
     /**
      * Get a map of actions and their respective data for a banned item object, if present.
@@ -59,9 +109,18 @@ public class Items {
     public Map<BanAction, BanActionData> get(@NotNull final BannedItem bannedItem) {
         // Custom items?
         if (!customItems.isEmpty()) {
-            for (final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> e : customItems.entrySet()) {
-                if (e.getKey().matches(bannedItem)) {
-                    return e.getValue();
+            final CustomItemCandidates candidates = getCustomItemsIndex().get(bannedItem.getType());
+            if (candidates != null) {
+                Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> match = matchCache.get(bannedItem);
+                if (match == null) {
+                    match = candidates.find(new ItemFacts(bannedItem));
+                    if (match == null) {
+                        match = MatchCache.NO_MATCH;
+                    }
+                    matchCache.put(bannedItem, match);
+                }
+                if (match != MatchCache.NO_MATCH) {
+                    return match.getValue();
                 }
             }
         }
@@ -76,6 +135,47 @@ public class Items {
         return items.get(simpleBannedItem);
     }
 
+    /**
+     * Get the custom items indexed by the materials they can match.
+     * The candidates keep the order of the custom items map, so the first match stays the same.
+     *
+     * @return the custom items index
+     */
+    @NotNull
+    private Map<Material, CustomItemCandidates> getCustomItemsIndex() {
+        Map<Material, CustomItemCandidates> index = customItemsIndex;
+        if (index == null) {
+            index = new EnumMap<>(Material.class);
+            for (final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> e : customItems.entrySet()) {
+                for (final Material m : e.getKey().getMaterials()) {
+                    index.computeIfAbsent(m, k -> new CustomItemCandidates()).add(e);
+                }
+            }
+            index.values().forEach(CustomItemCandidates::build);
+            customItemsIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Invalidate the custom items index and the cached matches, so they will be built again on next use.
+     * This must be called if the custom items map is edited directly.
+     */
+    public void invalidateIndex() {
+        customItemsIndex = null;
+        matchCache.clear();
+    }
+
+    /**
+     * Get the cache of the custom items matches.
+     *
+     * @return the cache of the custom items matches
+     */
+    @NotNull
+    public MatchCache getMatchCache() {
+        return matchCache;
+    }
+
     /**
      * Get the BanActionData of the BannedItem for the said action, if present.
      *
@@ -0,0 +1,151 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.database.items;
+
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.actions.BanActionData;
+import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.CustomBannedItem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of custom items matches, with least recently used eviction.
+ * The items are identified by their material and meta <i>(as {@link BannedItem#equals(Object)})</i>,
+ * so the same kit item carried by many players is matched against the custom items only once.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class MatchCache {
+    /**
+     * Represents a cached "no custom item matches".
+     */
+    public static final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> NO_MATCH = new AbstractMap.SimpleImmutableEntry<>(null, null);
+
+    private final int maxSize;
+    private final Map<BannedItem, Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>>> map;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creating a new match cache.
+     *
+     * @param maxSize the maximum amount of items cached, 0 to disable the cache
+     */
+    public MatchCache(final int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.map = new LinkedHashMap<BannedItem, Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<BannedItem, Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>>> eldest) {
+                return size() > MatchCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the cached match of this item.
+     *
+     * @param item the item
+     * @return the matching custom item entry, {@link #NO_MATCH} if none matches, or null if not cached
+     */
+    @Nullable
+    public Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> get(@NotNull final BannedItem item) {
+        if (maxSize == 0) {
+            return null;
+        }
+        final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> match;
+        synchronized (map) {
+            match = map.get(item);
+        }
+        if (match == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return match;
+    }
+
+    /**
+     * Caching the match of this item.
+     *
+     * @param item  the item
+     * @param match the matching custom item entry, or {@link #NO_MATCH}
+     */
+    public void put(@NotNull final BannedItem item, @NotNull final Map.Entry<CustomBannedItem, Map<BanAction, BanActionData>> match) {
+        // Not an item: the match could differ from the same item stack
+        if (maxSize == 0 || item instanceof CustomBannedItem || (item.getItemStack() == null && !item.getType().isItem())) {
+            return;
+        }
+        synchronized (map) {
+            map.put(item, match);
+        }
+    }
+
+    /**
+     * Clear the cached matches.
+     */
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    /**
+     * Get the amount of cached items.
+     *
+     * @return the amount of cached items
+     */
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    /**
+     * Get the maximum amount of cached items.
+     *
+     * @return the maximum amount of cached items
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the amount of lookups which were cached.
+     *
+     * @return the amount of cache hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the amount of lookups which were not cached.
+     *
+     * @return the amount of cache misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
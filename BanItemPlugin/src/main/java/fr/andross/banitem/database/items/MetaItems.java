@@ -77,6 +77,18 @@ public final class MetaItems extends DoubleMap<String, BannedItem> {
         }
     }
 
+    /**
+     * Copying the meta items, to build a new database snapshot.
+     * The file and its configuration are shared.
+     *
+     * @param metaItems the meta items to copy
+     */
+    public MetaItems(@NotNull final MetaItems metaItems) {
+        this.file = metaItems.file;
+        this.config = metaItems.config;
+        putAll(metaItems);
+    }
+
     /**
      * The file configuration used to create this instance
      *
@@ -43,6 +43,13 @@ public final class CustomBannedItem extends BannedItem implements ICustomName {
     private boolean valid = true;
     private boolean reverted = false;
 
+    /**
+     * Meta types in their evaluation order: cheapest first, then the most rejecting first.
+     */
+    private volatile MetaType[] order;
+    private final int[] rejections = new int[MetaType.values().length];
+    private int checks;
+
     /**
      * Represents a custom item, handled by BanItem, which will match specific meta types
      * on the item.
@@ -93,9 +100,7 @@ public final class CustomBannedItem extends BannedItem implements ICustomName {
 
             // Creating comparator
             try {
-                final MetaTypeComparator comparator = type.getClazz()
-                        .getDeclaredConstructor(Object.class, Debug.class)
-                        .newInstance(section.get(key), debug.clone().add(key));
+                final MetaTypeComparator comparator = type.newComparator(section.get(key), debug.clone().add(key));
                 if (!comparator.isValid()) {
                     valid = false;
                     return;
@@ -115,28 +120,55 @@ public final class CustomBannedItem extends BannedItem implements ICustomName {
      * @return true if the item meta matches, otherwise false
      */
     public boolean matches(@NotNull final BannedItem bannedItem) {
+        return matches(new ItemFacts(bannedItem));
+    }
+
+    /**
+     * Comparing the ItemMeta of the item with the item meta stored.
+     * The facts can be shared between multiple custom items checks.
+     *
+     * @param facts the facts of the item to compare
+     * @return true if the item meta matches, otherwise false
+     */
+    public boolean matches(@NotNull final ItemFacts facts) {
         // Matching material?
-        if (!materials.contains(bannedItem.getType())) {
+        if (!materials.contains(facts.getItem().getType())) {
             return false;
         }
 
-        // All meta are matching?
-        if (!reverted) {
-            for (final Map.Entry<MetaType, MetaTypeComparator> e : meta.entrySet()) {
-                if (!e.getValue().matches(bannedItem)) {
-                    return false;
-                }
+        // All meta are matching? (or, if reverted, any meta not matching)
+        // The first meta not matching decides, so the order does not change the result
+        for (final MetaType type : getOrder()) {
+            final MetaTypeComparator comparator = meta.get(type);
+            if (comparator == null) { // Meta edited meanwhile
+                order = null;
+                return matches(facts);
+            }
+            final Boolean known = facts.getKnownMatch(comparator);
+            if (!(known == null ? comparator.matches(facts) : known)) {
+                rejections[type.ordinal()]++;
+                return reverted;
             }
-            return true;
         }
+        return !reverted;
+    }
 
-        // Reverted custom item! (matching everything that does not match)
-        for (final Map.Entry<MetaType, MetaTypeComparator> e : meta.entrySet()) {
-            if (!e.getValue().matches(bannedItem)) {
-                return true;
-            }
+    /**
+     * Get the meta types in their evaluation order, sorted again every 4096 checks
+     * with the observed rejections.
+     *
+     * @return the meta types in their evaluation order
+     */
+    @NotNull
+    private MetaType[] getOrder() {
+        MetaType[] o = order;
+        if (o == null || o.length != meta.size() || (++checks & 4095) == 0) {
+            o = meta.keySet().stream()
+                    .sorted(Comparator.comparingInt(MetaType::getCost).thenComparingInt(t -> -rejections[t.ordinal()]))
+                    .toArray(MetaType[]::new);
+            order = o;
         }
-        return false;
+        return o;
     }
 
     /**
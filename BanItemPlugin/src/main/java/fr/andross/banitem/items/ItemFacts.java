@@ -0,0 +1,233 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.items;
+
+import fr.andross.banitem.items.meta.MetaType;
+import fr.andross.banitem.items.meta.MetaTypeComparator;
+import fr.andross.banitem.utils.MinecraftVersion;
+import fr.andross.banitem.utils.Utils;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.potion.PotionEffectType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A lazy view of the facts of an item, shared by all the meta comparators during one item check.
+ * Each fact is extracted from the item at most once.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class ItemFacts {
+    private final BannedItem item;
+    private String displayName;
+    private boolean displayNameLoaded;
+    private List<String> lore;
+    private boolean loreLoaded;
+    private Map<Enchantment, Integer> enchants;
+    private Map<PotionEffectType, Integer> potions;
+    private Integer modelData;
+    private boolean modelDataLoaded;
+    private Integer damage;
+    private boolean damageLoaded;
+    private final Map<MetaType, Object> facts = new EnumMap<>(MetaType.class);
+    private Map<MetaTypeComparator, Boolean> knownMatches;
+
+    /**
+     * Preparing the facts of the item.
+     *
+     * @param item the item involved
+     */
+    public ItemFacts(@NotNull final BannedItem item) {
+        this.item = item;
+    }
+
+    /**
+     * Get the item involved.
+     *
+     * @return the item involved
+     */
+    @NotNull
+    public BannedItem getItem() {
+        return item;
+    }
+
+    /**
+     * Get the item meta, not copied.
+     *
+     * @return the item meta if any, otherwise null
+     */
+    @Nullable
+    public ItemMeta getItemMeta() {
+        return item.getItemMeta();
+    }
+
+    /**
+     * Check if the item can be represented as an item stack.
+     *
+     * @return true if the item is an item, otherwise false
+     */
+    public boolean isItem() {
+        return item.getItemStack() != null || item.getType().isItem();
+    }
+
+    /**
+     * Get the display name of the item.
+     *
+     * @return the display name, or null if the item does not have one
+     */
+    @Nullable
+    public String getDisplayName() {
+        if (!displayNameLoaded) {
+            final ItemMeta itemMeta = item.getItemMeta();
+            displayName = itemMeta != null && itemMeta.hasDisplayName() ? itemMeta.getDisplayName() : null;
+            displayNameLoaded = true;
+        }
+        return displayName;
+    }
+
+    /**
+     * Get the lore lines of the item.
+     *
+     * @return the lore lines, or null if the item does not have a lore
+     */
+    @Nullable
+    public List<String> getLore() {
+        if (!loreLoaded) {
+            final ItemMeta itemMeta = item.getItemMeta();
+            lore = itemMeta != null && itemMeta.hasLore() ? itemMeta.getLore() : null;
+            loreLoaded = true;
+        }
+        return lore;
+    }
+
+    /**
+     * Get all the enchantments on the item, including stored enchants.
+     *
+     * @return an unmodifiable map of enchantments and their level
+     * @see Utils#getAllEnchants(org.bukkit.inventory.ItemStack)
+     */
+    @NotNull
+    public Map<Enchantment, Integer> getEnchants() {
+        if (enchants == null) {
+            enchants = Utils.getAllEnchants(item.toItemStack());
+        }
+        return enchants;
+    }
+
+    /**
+     * Get all the potion effects on the item.
+     *
+     * @return an unmodifiable map of potion effects and their level
+     * @see Utils#getAllPotionEffects(org.bukkit.inventory.ItemStack)
+     */
+    @NotNull
+    public Map<PotionEffectType, Integer> getPotions() {
+        if (potions == null) {
+            potions = Utils.getAllPotionEffects(item.toItemStack());
+        }
+        return potions;
+    }
+
+    /**
+     * Get the custom model data of the item.
+     * This must only be used on MC1.14+.
+     *
+     * @return the custom model data, or null if the item does not have one
+     */
+    @Nullable
+    public Integer getModelData() {
+        if (!modelDataLoaded) {
+            final ItemMeta itemMeta = item.getItemMeta();
+            modelData = itemMeta != null && itemMeta.hasCustomModelData() ? itemMeta.getCustomModelData() : null;
+            modelDataLoaded = true;
+        }
+        return modelData;
+    }
+
+    /**
+     * Get the damage of the item.
+     *
+     * @return the damage of the item, or null if it can not be known
+     */
+    @Nullable
+    public Integer getDamage() {
+        if (!damageLoaded) {
+            if (MinecraftVersion.v13OrMore) {
+                final ItemMeta itemMeta = item.getItemMeta();
+                damage = itemMeta == null ? null : ((Damageable) itemMeta).getDamage();
+            } else {
+                damage = isItem() ? (int) item.toItemStack().getDurability() : null;
+            }
+            damageLoaded = true;
+        }
+        return damage;
+    }
+
+    /**
+     * Set the already known result of a comparator on this item.
+     *
+     * @param comparator the comparator
+     * @param matches    if the comparator matches this item
+     */
+    public void setKnownMatch(@NotNull final MetaTypeComparator comparator, final boolean matches) {
+        if (knownMatches == null) {
+            knownMatches = new IdentityHashMap<>();
+        }
+        knownMatches.put(comparator, matches);
+    }
+
+    /**
+     * Get the already known result of a comparator on this item.
+     *
+     * @param comparator the comparator
+     * @return if the comparator matches this item, or null if not known
+     */
+    @Nullable
+    public Boolean getKnownMatch(@NotNull final MetaTypeComparator comparator) {
+        return knownMatches == null ? null : knownMatches.get(comparator);
+    }
+
+    /**
+     * Get a fact specific to a meta type <i>(ex. NBT compound, hooks ids)</i>,
+     * extracting it only if not already done.
+     *
+     * @param type      the meta type using this fact
+     * @param extractor the function extracting the fact from the item
+     * @param <T>       the type of the fact
+     * @return the fact, possibly null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T getFact(@NotNull final MetaType type, @NotNull final Function<BannedItem, T> extractor) {
+        if (facts.containsKey(type)) {
+            return (T) facts.get(type);
+        }
+        final T fact = extractor.apply(item);
+        facts.put(type, fact);
+        return fact;
+    }
+}
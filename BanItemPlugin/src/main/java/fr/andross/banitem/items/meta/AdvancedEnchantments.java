@@ -17,7 +17,7 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.list.Listable;
 import net.advancedplugins.ae.api.AEAPI;
@@ -106,14 +106,14 @@ public final class AdvancedEnchantments extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
+    public boolean matches(@NotNull final ItemFacts facts) {
         // Not an Item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
+        if (!facts.isItem()) {
             return false;
         }
 
-        final Map<String, Integer> enchantsOnItem = AEAPI.getEnchantmentsOnItem(bannedItem.toItemStack());
-        if (enchantsOnItem.isEmpty()) {
+        final Map<String, Integer> enchantsOnItem = facts.getFact(MetaType.ADVANCEDENCHANTMENTS, i -> AEAPI.getEnchantmentsOnItem(i.toItemStack()));
+        if (enchantsOnItem == null || enchantsOnItem.isEmpty()) {
             return false;
         }
         for (final Map.Entry<String, Integer> e : enchantsOnItem.entrySet()) {
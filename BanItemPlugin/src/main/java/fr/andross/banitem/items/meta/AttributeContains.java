@@ -19,7 +19,7 @@ package fr.andross.banitem.items.meta;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.MinecraftVersion;
 import fr.andross.banitem.utils.attributes.AttributeLegacy;
 import fr.andross.banitem.utils.attributes.AttributeLevels;
@@ -112,17 +112,18 @@ public final class AttributeContains extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        if (bannedItem.getItemMeta() == null) {
+    public boolean matches(@NotNull final ItemFacts facts) {
+        if (facts.getItemMeta() == null) {
             return false;
         }
 
         // Not an item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
+        if (!facts.isItem()) {
             return false;
         }
 
-        return getAttributesModifiers(bannedItem.toItemStack()).entries().stream()
+        final Multimap<Object, Double> modifiers = facts.getFact(MetaType.ATTRIBUTE, i -> getAttributesModifiers(i.toItemStack()));
+        return modifiers != null && modifiers.entries().stream()
                 .filter(entry -> attributes.containsKey(entry.getKey()))
                 .anyMatch(entry -> attributes.get(entry.getKey()).stream()
                         .anyMatch(levels -> levels == null || levels.matches(entry.getValue())));
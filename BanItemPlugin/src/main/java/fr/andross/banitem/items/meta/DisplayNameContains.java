@@ -17,10 +17,9 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -44,8 +43,18 @@ public final class DisplayNameContains extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        return itemMeta != null && itemMeta.hasDisplayName() && itemMeta.getDisplayName().contains(displayName);
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final String itemDisplayName = facts.getDisplayName();
+        return itemDisplayName != null && itemDisplayName.contains(displayName);
+    }
+
+    /**
+     * Get the value the display name must contain.
+     *
+     * @return the value the display name must contain
+     */
+    @NotNull
+    String getDisplayName() {
+        return displayName;
     }
 }
@@ -17,11 +17,14 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * A simple meta comparator to compare the display name.
@@ -44,8 +47,20 @@ public final class DisplayNameEquals extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        return itemMeta != null && itemMeta.hasDisplayName() && itemMeta.getDisplayName().equals(displayName);
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final String itemDisplayName = facts.getDisplayName();
+        return itemDisplayName != null && itemDisplayName.equals(displayName);
+    }
+
+    @NotNull
+    @Override
+    public Set<?> getIndexKeys() {
+        return Collections.singleton(displayName);
+    }
+
+    @Nullable
+    @Override
+    public Object getIndexKey(@NotNull final ItemFacts facts) {
+        return facts.getDisplayName();
     }
 }
@@ -17,10 +17,10 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -52,8 +52,18 @@ public final class DisplayNameEqualsRegex extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        return itemMeta != null && itemMeta.hasDisplayName() && pattern.matcher(itemMeta.getDisplayName()).find();
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final String itemDisplayName = facts.getDisplayName();
+        return itemDisplayName != null && pattern.matcher(itemDisplayName).find();
+    }
+
+    /**
+     * Get the compiled regex.
+     *
+     * @return the compiled regex, null if invalid
+     */
+    @Nullable
+    Pattern getPattern() {
+        return pattern;
     }
 }
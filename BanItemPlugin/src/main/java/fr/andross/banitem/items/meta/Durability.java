@@ -17,11 +17,8 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
-import fr.andross.banitem.utils.MinecraftVersion;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.Damageable;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -81,21 +78,11 @@ public final class Durability extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final int durability;
-
-        if (MinecraftVersion.v13OrMore) {
-            final ItemMeta itemMeta = bannedItem.getItemMeta();
-            if (itemMeta == null) {
-                return false;
-            }
-            durability = ((Damageable) itemMeta).getDamage();
-        } else {
-            // Not an item ?
-            if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
-                return false;
-            }
-            durability = bannedItem.toItemStack().getDurability();
+    public boolean matches(@NotNull final ItemFacts facts) {
+        // No meta, or not an item ?
+        final Integer durability = facts.getDamage();
+        if (durability == null) {
+            return false;
         }
 
         return durability >= min && durability <= max;
@@ -17,9 +17,8 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.MinecraftVersion;
-import fr.andross.banitem.utils.Utils;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.enchantments.EnchantmentHelper;
 import fr.andross.banitem.utils.enchantments.EnchantmentWrapper;
@@ -126,13 +125,13 @@ public final class EnchantmentContains extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
+    public boolean matches(@NotNull final ItemFacts facts) {
         // Not an item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
+        if (!facts.isItem()) {
             return false;
         }
 
-        final Map<Enchantment, Integer> enchantsOnItem = Utils.getAllEnchants(bannedItem.toItemStack());
+        final Map<Enchantment, Integer> enchantsOnItem = facts.getEnchants();
         for (final Map.Entry<Enchantment, Integer> e : enchantsOnItem.entrySet()) {
             final Enchantment enchantment = e.getKey();
             final int level = e.getValue();
@@ -17,8 +17,7 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
-import fr.andross.banitem.utils.Utils;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.enchantments.EnchantmentHelper;
 import fr.andross.banitem.utils.list.Listable;
@@ -77,11 +76,11 @@ public final class EnchantmentEquals extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
+    public boolean matches(@NotNull final ItemFacts facts) {
         // Not an item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
+        if (!facts.isItem()) {
             return false;
         }
-        return Utils.getAllEnchants(bannedItem.toItemStack()).equals(enchants);
+        return facts.getEnchants().equals(enchants);
     }
 }
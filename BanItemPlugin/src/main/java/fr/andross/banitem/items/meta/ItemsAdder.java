@@ -18,10 +18,11 @@
 package fr.andross.banitem.items.meta;
 
 import dev.lone.itemsadder.api.CustomStack;
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.list.Listable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashSet;
 import java.util.Locale;
@@ -59,13 +60,28 @@ public final class ItemsAdder extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final Object id = getIndexKey(facts);
+        return id != null && items.contains(id);
+    }
+
+    @Nullable
+    @Override
+    public Set<?> getIndexKeys() {
+        return items.isEmpty() ? null : items;
+    }
+
+    @Nullable
+    @Override
+    public Object getIndexKey(@NotNull final ItemFacts facts) {
         // Not an item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
-            return false;
+        if (!facts.isItem()) {
+            return null;
         }
 
-        final CustomStack customStack = CustomStack.byItemStack(bannedItem.toItemStack());
-        return customStack != null && items.contains(customStack.getId().toLowerCase(Locale.ROOT));
+        return facts.getFact(MetaType.ITEMSADDER, i -> {
+            final CustomStack customStack = CustomStack.byItemStack(i.toItemStack());
+            return customStack == null ? null : customStack.getId().toLowerCase(Locale.ROOT);
+        });
     }
 }
@@ -17,11 +17,10 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.list.Listable;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -51,9 +50,18 @@ public final class LoreContains extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        final List<String> itemLore = itemMeta == null ? null : (itemMeta.hasLore() ? itemMeta.getLore() : null); // made it that way to ignore the @Nullable annotation warning
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final List<String> itemLore = facts.getLore();
         return itemLore != null && itemLore.stream().anyMatch(lore::contains);
     }
+
+    /**
+     * Get the lore lines, one of them must be in the item lore.
+     *
+     * @return the lore lines
+     */
+    @NotNull
+    Set<String> getLore() {
+        return lore;
+    }
 }
@@ -17,10 +17,10 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.regex.Pattern;
@@ -52,9 +52,18 @@ public final class LoreContainsRegex extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        final List<String> itemLore = itemMeta == null ? null : (itemMeta.hasLore() ? itemMeta.getLore() : null); // made it that way to ignore the @Nullable annotation warning
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final List<String> itemLore = facts.getLore();
         return itemLore != null && itemLore.stream().anyMatch(l -> pattern.matcher(l).find());
     }
+
+    /**
+     * Get the compiled regex.
+     *
+     * @return the compiled regex, null if invalid
+     */
+    @Nullable
+    Pattern getPattern() {
+        return pattern;
+    }
 }
@@ -17,14 +17,16 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.list.Listable;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -48,8 +50,20 @@ public final class LoreEquals extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        return itemMeta != null && itemMeta.hasLore() && lore.equals(itemMeta.getLore());
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final List<String> itemLore = facts.getLore();
+        return itemLore != null && lore.equals(itemLore);
+    }
+
+    @NotNull
+    @Override
+    public Set<?> getIndexKeys() {
+        return Collections.singleton(lore);
+    }
+
+    @Nullable
+    @Override
+    public Object getIndexKey(@NotNull final ItemFacts facts) {
+        return facts.getLore();
     }
 }
@@ -17,10 +17,9 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -46,9 +45,18 @@ public final class LoreLineContains extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        final List<String> itemLore = itemMeta == null ? null : (itemMeta.hasLore() ? itemMeta.getLore() : null); // made it that way to ignore the @Nullable annotation warning
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final List<String> itemLore = facts.getLore();
         return itemLore != null && itemLore.stream().anyMatch(l -> l.contains(lore));
     }
+
+    /**
+     * Get the value a lore line must contain.
+     *
+     * @return the value a lore line must contain
+     */
+    @NotNull
+    String getLore() {
+        return lore;
+    }
 }
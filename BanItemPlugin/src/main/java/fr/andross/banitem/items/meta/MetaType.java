@@ -17,7 +17,11 @@
  */
 package fr.andross.banitem.items.meta;
 
+import fr.andross.banitem.utils.debug.Debug;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiFunction;
 
 /**
  * A simple enumeration for customizable item metas.
@@ -29,97 +33,103 @@ public enum MetaType {
     /**
      * Match specific AdvancedEnchantments plugin enchantments.
      */
-    ADVANCEDENCHANTMENTS(AdvancedEnchantments.class),
+    ADVANCEDENCHANTMENTS(AdvancedEnchantments.class, 3, (o, d) -> new AdvancedEnchantments(o, d)),
 
     /**
      * Match the item attribute.
      */
-    ATTRIBUTE(AttributeContains.class),
+    ATTRIBUTE(AttributeContains.class, 3, (o, d) -> new AttributeContains(o, d)),
 
     /**
      * If the display name of the item contains a specific value.
      */
-    DISPLAYNAME_CONTAINS(DisplayNameContains.class),
+    DISPLAYNAME_CONTAINS(DisplayNameContains.class, 1, (o, d) -> new DisplayNameContains(o, d)),
 
     /**
      * If the display name of the item is exactly equals to a specific value.
      */
-    DISPLAYNAME_EQUALS(DisplayNameEquals.class),
+    DISPLAYNAME_EQUALS(DisplayNameEquals.class, 1, (o, d) -> new DisplayNameEquals(o, d)),
 
     /**
      * If the display name of the item match a specific regex.
      */
-    DISPLAYNAME_EQUALS_REGEX(DisplayNameEqualsRegex.class),
+    DISPLAYNAME_EQUALS_REGEX(DisplayNameEqualsRegex.class, 2, (o, d) -> new DisplayNameEqualsRegex(o, d)),
 
     /**
      * If the durability of the item match a specific value.
      */
-    DURABILITY(Durability.class),
+    DURABILITY(Durability.class, 0, (o, d) -> new Durability(o, d)),
 
     /**
      * If the item contains specific enchantment(s).
      */
-    ENCHANTMENT_CONTAINS(EnchantmentContains.class),
+    ENCHANTMENT_CONTAINS(EnchantmentContains.class, 1, (o, d) -> new EnchantmentContains(o, d)),
 
     /**
      * If the item enchantments match exactly the specified enchantment(s).
      */
-    ENCHANTMENT_EQUALS(EnchantmentEquals.class),
+    ENCHANTMENT_EQUALS(EnchantmentEquals.class, 1, (o, d) -> new EnchantmentEquals(o, d)),
 
     /**
      * If the item match an ItemsAdder item.
      */
-    ITEMSADDER(ItemsAdder.class),
+    ITEMSADDER(ItemsAdder.class, 3, (o, d) -> new ItemsAdder(o, d)),
 
     /**
      * If the item lore contains a lore.
      */
-    LORE_CONTAINS(LoreContains.class),
+    LORE_CONTAINS(LoreContains.class, 1, (o, d) -> new LoreContains(o, d)),
 
     /**
      * If the item lore match a regex.
      */
-    LORE_CONTAINS_REGEX(LoreContainsRegex.class),
+    LORE_CONTAINS_REGEX(LoreContainsRegex.class, 2, (o, d) -> new LoreContainsRegex(o, d)),
 
     /**
      * If the item lore is exactly the same as a specified one.
      */
-    LORE_EQUALS(LoreEquals.class),
+    LORE_EQUALS(LoreEquals.class, 1, (o, d) -> new LoreEquals(o, d)),
 
     /**
      * If a line from an item lore contains a specific value.
      */
-    LORE_LINE_CONTAINS(LoreLineContains.class),
+    LORE_LINE_CONTAINS(LoreLineContains.class, 1, (o, d) -> new LoreLineContains(o, d)),
 
     /**
      * If the item model data is equals to a specified value.
      */
-    MODELDATA_EQUALS(ModeldataEquals.class),
+    MODELDATA_EQUALS(ModeldataEquals.class, 0, (o, d) -> new ModeldataEquals(o, d)),
 
     /**
      * If the NBT tags (using NBTAPI) matches on the item.
      */
-    NBTAPI(NBTAPI.class),
+    NBTAPI(NBTAPI.class, 3, (o, d) -> new NBTAPI(o, d)),
 
     /**
      * If the item is a specific potion.
      */
-    POTION(Potion.class),
+    POTION(Potion.class, 1, (o, d) -> new Potion(o, d)),
 
     /**
      * If the item is unbreakable.
      */
-    UNBREAKABLE(Unbreakable.class);
+    UNBREAKABLE(Unbreakable.class, 0, (o, d) -> new Unbreakable(o, d));
 
     private final Class<? extends MetaTypeComparator> clazz;
+    private final int cost;
+    private final BiFunction<Object, Debug, MetaTypeComparator> factory;
 
     /**
      * List all meta type.
      *
-     * @param clazz the class used to instantiate the meta type comparator.
+     * @param clazz   the class used to instantiate the meta type comparator.
+     * @param cost    the cost class of the comparison, from 0 <i>(simple meta value)</i> to 3 <i>(hooks and reflection)</i>
+     * @param factory the constructor of the meta type comparator, as a lambda so optional hooks classes are only loaded when used
      */
-    MetaType(final Class<? extends MetaTypeComparator> clazz) {
+    MetaType(final Class<? extends MetaTypeComparator> clazz, final int cost, final BiFunction<Object, Debug, MetaTypeComparator> factory) {
         this.clazz = clazz;
+        this.cost = cost;
+        this.factory = factory;
     }
 
     /**
@@ -131,4 +141,31 @@ public enum MetaType {
     public Class<? extends MetaTypeComparator> getClazz() {
         return clazz;
     }
+
+    /**
+     * Get the cost class of the comparison, used to run the cheapest comparisons first.
+     * <ul>
+     *     <li>0: simple meta value <i>(model data, durability, unbreakable)</i></li>
+     *     <li>1: strings and maps comparison <i>(display name, lore, enchantments, potions)</i></li>
+     *     <li>2: regex</li>
+     *     <li>3: hooks and reflection <i>(attributes, NBT, ItemsAdder, AdvancedEnchantments)</i></li>
+     * </ul>
+     *
+     * @return the cost class of the comparison
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Create a new comparator of this meta.
+     *
+     * @param configurationProperties the configuration properties of the meta
+     * @param debug                   the debug
+     * @return a new comparator of this meta
+     */
+    @NotNull
+    public MetaTypeComparator newComparator(@Nullable final Object configurationProperties, @NotNull final Debug debug) {
+        return factory.apply(configurationProperties, debug);
+    }
 }
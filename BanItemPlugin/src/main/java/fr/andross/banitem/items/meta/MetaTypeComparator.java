@@ -18,8 +18,12 @@
 package fr.andross.banitem.items.meta;
 
 import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
 
 /**
  * An abstract meta type comparator.
@@ -37,10 +41,29 @@ public abstract class MetaTypeComparator {
      *
      * @param configurationProperties the property configuration used
      * @param debug                   the debug object
+     * @throws IllegalStateException if the implementation overrides neither {@link #matches(BannedItem)} nor {@link #matches(ItemFacts)}
      */
     public MetaTypeComparator(final Object configurationProperties,
                               final Debug debug) {
         this.configurationProperties = configurationProperties;
+        // Both delegate to each other by default
+        if (!isOverridden(BannedItem.class) && !isOverridden(ItemFacts.class)) {
+            throw new IllegalStateException(getClass().getName() + " must override matches(BannedItem) or matches(ItemFacts).");
+        }
+    }
+
+    /**
+     * Check if the implementation overrides the matches method with this parameter.
+     *
+     * @param parameter the parameter type of the matches method
+     * @return true if overridden, otherwise false
+     */
+    private boolean isOverridden(@NotNull final Class<?> parameter) {
+        try {
+            return getClass().getMethod("matches", parameter).getDeclaringClass() != MetaTypeComparator.class;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
     }
 
     /**
@@ -65,9 +88,49 @@ public abstract class MetaTypeComparator {
 
     /**
      * Check if the meta type configured matches on the item involved.
+     * <p>Implementations must override either this method or {@link #matches(ItemFacts)},
+     * otherwise the constructor throws an {@link IllegalStateException}.</p>
      *
      * @param bannedItem the current item involved
      * @return true if the meta is present on the item, otherwise false
      */
-    public abstract boolean matches(@NotNull final BannedItem bannedItem);
+    public boolean matches(@NotNull final BannedItem bannedItem) {
+        return matches(new ItemFacts(bannedItem));
+    }
+
+    /**
+     * Check if the meta type configured matches on the item involved.
+     * The facts are shared between all comparators of an item check, so each of them
+     * is extracted from the item only once.
+     * <p>By default, this delegates to {@link #matches(BannedItem)}, for the implementations
+     * written before the facts were introduced.</p>
+     *
+     * @param facts the facts of the current item involved
+     * @return true if the meta is present on the item, otherwise false
+     */
+    public boolean matches(@NotNull final ItemFacts facts) {
+        return matches(facts.getItem());
+    }
+
+    /**
+     * Get the values an item must be equal to, to match this comparator.
+     * This is used to index the custom items, so only equality comparators return these values.
+     *
+     * @return the values an item must be equal to, or null if this comparator is not an equality
+     */
+    @Nullable
+    public Set<?> getIndexKeys() {
+        return null;
+    }
+
+    /**
+     * Get the value of the item compared to {@link #getIndexKeys()}.
+     *
+     * @param facts the facts of the current item involved
+     * @return the value of the item, or null if the item does not have any
+     */
+    @Nullable
+    public Object getIndexKey(@NotNull final ItemFacts facts) {
+        return null;
+    }
 }
@@ -17,11 +17,14 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.MinecraftVersion;
 import fr.andross.banitem.utils.debug.Debug;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * A simple meta comparator to compare the model data.
@@ -56,8 +59,20 @@ public final class ModeldataEquals extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
-        return itemMeta != null && itemMeta.hasCustomModelData() && itemMeta.getCustomModelData() == modelData;
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final Integer itemModelData = facts.getModelData();
+        return itemModelData != null && itemModelData == modelData;
+    }
+
+    @NotNull
+    @Override
+    public Set<?> getIndexKeys() {
+        return Collections.singleton(modelData);
+    }
+
+    @Nullable
+    @Override
+    public Object getIndexKey(@NotNull final ItemFacts facts) {
+        return facts.getModelData();
     }
 }
@@ -19,7 +19,7 @@ package fr.andross.banitem.items.meta;
 
 import de.tr7zw.nbtapi.NBTCompound;
 import de.tr7zw.nbtapi.NBTItem;
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.debug.Debug;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.inventory.ItemStack;
@@ -124,13 +124,16 @@ public final class NBTAPI extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
+    public boolean matches(@NotNull final ItemFacts facts) {
         // Not an item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
+        if (!facts.isItem()) {
             return false;
         }
 
-        final NBTItem nbtItem = new NBTItem(bannedItem.toItemStack());
+        final NBTItem nbtItem = facts.getFact(MetaType.NBTAPI, i -> new NBTItem(i.toItemStack()));
+        if (nbtItem == null) {
+            return false;
+        }
 
         for (final Map.Entry<List<String>, List<BiPredicate<NBTCompound, String>>> e : map.entrySet()) {
             final List<String> nodes = e.getKey();
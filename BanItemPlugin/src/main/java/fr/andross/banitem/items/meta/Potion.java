@@ -17,9 +17,8 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.MinecraftVersion;
-import fr.andross.banitem.utils.Utils;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.list.Listable;
 import fr.andross.banitem.utils.potions.PotionHelper;
@@ -126,13 +125,13 @@ public final class Potion extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
+    public boolean matches(@NotNull final ItemFacts facts) {
         // Not an item ?
-        if (bannedItem.getItemStack() == null && !bannedItem.getType().isItem()) {
+        if (!facts.isItem()) {
             return false;
         }
 
-        final Map<PotionEffectType, Integer> potions = Utils.getAllPotionEffects(bannedItem.toItemStack());
+        final Map<PotionEffectType, Integer> potions = facts.getPotions();
         if (potions.isEmpty()) {
             return false;
         }
@@ -0,0 +1,146 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.items.meta;
+
+import fr.andross.banitem.items.ItemFacts;
+import fr.andross.banitem.utils.AhoCorasick;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates all the display name and lore comparators of many custom items at once:
+ * the "contains" values are compiled into one automaton, and the regexes into one combined
+ * regex used to skip the texts none of them can match.
+ * <p>The results are stored as known matches into the {@link ItemFacts}.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class TextMatcher {
+    private final List<MetaTypeComparator> comparators = new ArrayList<>();
+    private final AhoCorasick<MetaTypeComparator> displayNameNeedles = new AhoCorasick<>();
+    private final AhoCorasick<MetaTypeComparator> loreLineNeedles = new AhoCorasick<>();
+    private final Map<String, List<MetaTypeComparator>> loreLines = new HashMap<>();
+    private final List<MetaTypeComparator> displayNameRegexes = new ArrayList<>();
+    private final List<MetaTypeComparator> loreRegexes = new ArrayList<>();
+    private final Pattern displayNameRegex;
+    private final Pattern loreRegex;
+
+    /**
+     * Compiling the text comparators from these comparators, others are ignored.
+     *
+     * @param comparators the comparators
+     */
+    public TextMatcher(@NotNull final Collection<MetaTypeComparator> comparators) {
+        final List<Pattern> displayNamePatterns = new ArrayList<>();
+        final List<Pattern> lorePatterns = new ArrayList<>();
+        for (final MetaTypeComparator c : comparators) {
+            if (c instanceof DisplayNameContains) {
+                displayNameNeedles.add(((DisplayNameContains) c).getDisplayName(), c);
+            } else if (c instanceof LoreLineContains) {
+                loreLineNeedles.add(((LoreLineContains) c).getLore(), c);
+            } else if (c instanceof LoreContains) {
+                ((LoreContains) c).getLore().forEach(l -> loreLines.computeIfAbsent(l, k -> new ArrayList<>()).add(c));
+            } else if (c instanceof DisplayNameEqualsRegex && ((DisplayNameEqualsRegex) c).getPattern() != null) {
+                displayNameRegexes.add(c);
+                displayNamePatterns.add(((DisplayNameEqualsRegex) c).getPattern());
+            } else if (c instanceof LoreContainsRegex && ((LoreContainsRegex) c).getPattern() != null) {
+                loreRegexes.add(c);
+                lorePatterns.add(((LoreContainsRegex) c).getPattern());
+            } else {
+                continue;
+            }
+            this.comparators.add(c);
+        }
+        displayNameNeedles.build();
+        loreLineNeedles.build();
+        displayNameRegex = combine(displayNamePatterns);
+        loreRegex = combine(lorePatterns);
+    }
+
+    /**
+     * Combining the regexes into one alternation, which finds a match if any of them does.
+     *
+     * @param patterns the regexes
+     * @return the combined regex, or null if they can not be combined <i>(back references, flags)</i>
+     */
+    @Nullable
+    private static Pattern combine(@NotNull final List<Pattern> patterns) {
+        if (patterns.size() < 2 || patterns.stream().anyMatch(p -> p.flags() != 0 || p.pattern().matches("(?s).*\\\\(\\d|k<).*"))) {
+            return null;
+        }
+        try {
+            return Pattern.compile(patterns.stream().map(p -> "(?:" + p.pattern() + ")").collect(Collectors.joining("|")));
+        } catch (final PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the amount of text comparators compiled.
+     *
+     * @return the amount of text comparators compiled
+     */
+    public int size() {
+        return comparators.size();
+    }
+
+    /**
+     * Evaluate all the text comparators on the item, in one pass over the display name and each lore line.
+     *
+     * @param facts the facts of the item, which will contain the results
+     */
+    public void match(@NotNull final ItemFacts facts) {
+        final Set<MetaTypeComparator> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // Display name
+        final String displayName = facts.getDisplayName();
+        if (displayName != null) {
+            displayNameNeedles.search(displayName, matched::add);
+            if (!displayNameRegexes.isEmpty() && (displayNameRegex == null || displayNameRegex.matcher(displayName).find())) {
+                displayNameRegexes.stream().filter(c -> c.matches(facts)).forEach(matched::add);
+            }
+        }
+
+        // Lore
+        final List<String> lore = facts.getLore();
+        if (lore != null) {
+            boolean anyRegex = loreRegex == null;
+            for (final String line : lore) {
+                loreLineNeedles.search(line, matched::add);
+                final List<MetaTypeComparator> lines = loreLines.get(line);
+                if (lines != null) {
+                    matched.addAll(lines);
+                }
+                anyRegex |= !anyRegex && loreRegex.matcher(line).find();
+            }
+            if (anyRegex) {
+                loreRegexes.stream().filter(c -> c.matches(facts)).forEach(matched::add);
+            }
+        }
+
+        for (final MetaTypeComparator c : comparators) {
+            facts.setKnownMatch(c, matched.contains(c));
+        }
+    }
+}
@@ -17,7 +17,7 @@
  */
 package fr.andross.banitem.items.meta;
 
-import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
 import fr.andross.banitem.utils.MinecraftVersion;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.hooks.OldItemUtils;
@@ -45,8 +45,8 @@ public final class Unbreakable extends MetaTypeComparator {
     }
 
     @Override
-    public boolean matches(@NotNull final BannedItem bannedItem) {
-        final ItemMeta itemMeta = bannedItem.getItemMeta();
+    public boolean matches(@NotNull final ItemFacts facts) {
+        final ItemMeta itemMeta = facts.getItemMeta();
         final boolean isUnbreakable = itemMeta != null && (MinecraftVersion.v11OrMore ? itemMeta.isUnbreakable() : OldItemUtils.isUnbreakable(itemMeta));
         return isUnbreakable && unbreakable;
     }
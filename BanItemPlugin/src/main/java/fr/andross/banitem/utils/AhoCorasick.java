@@ -0,0 +1,143 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A simple Aho-Corasick automaton, finding all the needles contained in a text in one pass.
+ *
+ * @param <T> The value type associated to the needles
+ * @author Andross
+ * @version 3.8
+ */
+public final class AhoCorasick<T> {
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<List<T>> outputs = new ArrayList<>();
+    private int[] failures;
+
+    /**
+     * Creates a new empty automaton.
+     */
+    public AhoCorasick() {
+        newNode();
+    }
+
+    /**
+     * Add a needle. Needles can not be added once the automaton is built.
+     *
+     * @param needle the needle
+     * @param value  the value reported when the needle is found
+     * @throws IllegalStateException if the automaton is already built
+     */
+    public void add(@NotNull final String needle, @NotNull final T value) {
+        if (failures != null) {
+            throw new IllegalStateException("Automaton already built.");
+        }
+        int node = 0;
+        for (int i = 0; i < needle.length(); i++) {
+            final Integer next = transitions.get(node).get(needle.charAt(i));
+            if (next == null) {
+                final int created = newNode();
+                transitions.get(node).put(needle.charAt(i), created);
+                node = created;
+            } else {
+                node = next;
+            }
+        }
+        outputs.get(node).add(value);
+    }
+
+    /**
+     * Building the failure links.
+     *
+     * @return this object
+     */
+    @NotNull
+    public AhoCorasick<T> build() {
+        if (failures != null) {
+            return this;
+        }
+        failures = new int[transitions.size()];
+        final Deque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            final int node = queue.poll();
+            for (final Map.Entry<Character, Integer> e : transitions.get(node).entrySet()) {
+                final int child = e.getValue();
+                if (node != 0) {
+                    int failure = failures[node];
+                    while (failure != 0 && !transitions.get(failure).containsKey(e.getKey())) {
+                        failure = failures[failure];
+                    }
+                    failures[child] = transitions.get(failure).getOrDefault(e.getKey(), 0);
+                }
+                // Needles ending here, as a suffix (the root ones are reported once per search)
+                if (failures[child] != 0) {
+                    outputs.get(child).addAll(outputs.get(failures[child]));
+                }
+                queue.add(child);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Search all the needles contained in the text.
+     * A value can be reported multiple times if its needle is found multiple times.
+     *
+     * @param text     the text
+     * @param consumer the consumer of the found needles values
+     */
+    public void search(@NotNull final String text, @NotNull final Consumer<T> consumer) {
+        if (failures == null) {
+            build();
+        }
+        outputs.get(0).forEach(consumer); // empty needles
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            Integer next = transitions.get(node).get(c);
+            while (next == null && node != 0) {
+                node = failures[node];
+                next = transitions.get(node).get(c);
+            }
+            node = next == null ? 0 : next;
+            if (node != 0) {
+                outputs.get(node).forEach(consumer);
+            }
+        }
+    }
+
+    /**
+     * Check if there is no needle.
+     *
+     * @return true if there is no needle
+     */
+    public boolean isEmpty() {
+        return transitions.size() == 1 && outputs.get(0).isEmpty();
+    }
+
+    private int newNode() {
+        transitions.add(new HashMap<>());
+        outputs.add(new ArrayList<>());
+        return transitions.size() - 1;
+    }
+}
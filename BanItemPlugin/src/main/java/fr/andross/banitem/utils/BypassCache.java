@@ -0,0 +1,160 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A per player cache of the bypass permissions checks.
+ * <p>Players without any permission which could grant a <i>banitem.bypass</i> node are detected once,
+ * so their checks cost one lookup. For the others, each check result is cached.</p>
+ * <p>The entries are invalidated when the player changes world or quits, on reload, and after a delay
+ * to follow the permissions recalculations.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class BypassCache {
+    private final Map<UUID, Entry> players = new ConcurrentHashMap<>();
+    private volatile long ttl = 10000L;
+
+    /**
+     * Clear the cache and set the delay before an entry is computed again.
+     *
+     * @param ttl the delay in milliseconds, 0 to disable the cache
+     */
+    public void reload(final long ttl) {
+        this.ttl = Math.max(0L, ttl);
+        players.clear();
+    }
+
+    /**
+     * Invalidate the cached checks of the player.
+     *
+     * @param player the player
+     */
+    public void invalidate(@NotNull final Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Check if the player could have any bypass permission.
+     * This costs one lookup, and should be called before building the key of {@link #hasPermission(Player, List, BooleanSupplier)}.
+     *
+     * @param player the player
+     * @return false if the player can not bypass anything, true if the permissions must be checked
+     */
+    public boolean mayBypass(@NotNull final Player player) {
+        final long ttl = this.ttl;
+        return ttl == 0 || !getEntry(player, ttl).none;
+    }
+
+    /**
+     * Check if the player has a bypass permission.
+     *
+     * @param player the player
+     * @param key    the key identifying this check <i>(item name, action, data)</i>
+     * @param check  the permissions check, run if the result is not cached
+     * @return true if the player has the permission to bypass, otherwise false
+     */
+    public boolean hasPermission(@NotNull final Player player, @NotNull final List<Object> key, @NotNull final BooleanSupplier check) {
+        final long ttl = this.ttl;
+        if (ttl == 0) {
+            return check.getAsBoolean();
+        }
+
+        final Entry entry = getEntry(player, ttl);
+        if (entry.none) {
+            return false;
+        }
+        return entry.results.computeIfAbsent(key, k -> check.getAsBoolean());
+    }
+
+    /**
+     * Get the cached checks of the player, computing them again if expired.
+     *
+     * @param player the player
+     * @param ttl    the delay in milliseconds before the entry expires
+     * @return the cached checks of the player
+     */
+    @NotNull
+    private Entry getEntry(@NotNull final Player player, final long ttl) {
+        final long now = System.currentTimeMillis();
+        Entry entry = players.get(player.getUniqueId());
+        if (entry == null || entry.expires < now || entry.world != player.getWorld()) {
+            entry = new Entry(player, now + ttl);
+            players.put(player.getUniqueId(), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Get the amount of players cached.
+     *
+     * @return the amount of players cached
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * The cached checks of a player.
+     */
+    private static final class Entry {
+        private final World world;
+        private final long expires;
+        private final boolean none;
+        private final Map<List<Object>, Boolean> results = new ConcurrentHashMap<>();
+
+        private Entry(@NotNull final Player player, final long expires) {
+            this.world = player.getWorld();
+            this.expires = expires;
+            this.none = !canBypass(player);
+        }
+
+        /**
+         * Check if any permission of the player could grant a bypass node.
+         *
+         * @param player the player
+         * @return true if the player could bypass
+         */
+        private static boolean canBypass(@NotNull final Player player) {
+            for (final PermissionAttachmentInfo info : player.getEffectivePermissions()) {
+                if (!info.getValue()) {
+                    continue;
+                }
+                final String permission = info.getPermission().toLowerCase(Locale.ROOT);
+                if (permission.startsWith("banitem.bypass.") || permission.equals("banitem.*") || permission.equals("*")) {
+                    return true;
+                }
+            }
+            // Permission plugins resolving wildcards
+            return player.hasPermission("banitem.bypass.*");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues the commands of the <i>run</i> data, and dispatches them from the main thread,
+ * a bounded amount per tick.
+ * <p>The same command for the same player is only queued once within the configured window,
+ * and the queue is bounded: the commands exceeding it are dropped.
+ * PlaceholderAPI placeholders are replaced when the command is dispatched.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class CommandDispatcher {
+    private final Plugin plugin;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<Pending, Long> recent = new ConcurrentHashMap<>();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long window = 1000L;
+    private volatile boolean placeholders;
+    private int maxPerTick = 20;
+    private volatile int maxQueued = 10000;
+    private int taskId = -1;
+
+    /**
+     * Creates a new command dispatcher, not started.
+     *
+     * @param plugin the plugin instance, used to schedule the dispatches
+     */
+    public CommandDispatcher(@NotNull final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Load the configuration and (re)start the dispatches.
+     * The commands already queued are kept. This must be called from the main thread.
+     *
+     * @param section      the <i>run-dispatcher</i> configuration section, null for the defaults
+     * @param placeholders if the PlaceholderAPI placeholders must be replaced
+     */
+    public void reload(@Nullable final ConfigurationSection section, final boolean placeholders) {
+        if (taskId > -1) {
+            plugin.getServer().getScheduler().cancelTask(taskId);
+        }
+        this.window = section == null ? 1000L : Math.max(0L, section.getLong("window", 1000L));
+        this.maxPerTick = section == null ? 20 : Math.max(1, section.getInt("max-per-tick", 20));
+        this.maxQueued = section == null ? 10000 : Math.max(1, section.getInt("max-queued", 10000));
+        this.placeholders = placeholders;
+        recent.clear();
+        taskId = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L).getTaskId();
+    }
+
+    /**
+     * Queue the commands for this player.
+     * The <i>{player}</i>, <i>{world}</i> and <i>{itemname}</i> placeholders are replaced.
+     *
+     * @param player   the player involved
+     * @param itemName the item name involved
+     * @param commands the commands
+     */
+    public void submit(@NotNull final Player player, @NotNull final String itemName, @NotNull final List<String> commands) {
+        final long now = System.currentTimeMillis();
+        for (final String command : commands) {
+            final Pending pending = new Pending(player.getUniqueId(), player.getName(), command.replace("{player}", player.getName())
+                    .replace("{world}", player.getWorld().getName())
+                    .replace("{itemname}", itemName));
+
+            // Same command queued within the window?
+            if (window > 0) {
+                final Long last = recent.putIfAbsent(pending, now);
+                if (last != null) {
+                    if (now - last < window || !recent.replace(pending, last, now)) {
+                        duplicates.increment();
+                        continue;
+                    }
+                }
+            }
+
+            // Queue full?
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                dropped.increment();
+                continue;
+            }
+            queue.add(pending);
+        }
+    }
+
+    /**
+     * Dispatching all the queued commands now, for example before the plugin is disabled.
+     * This must be called from the main thread.
+     */
+    public void flush() {
+        dispatch(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Dispatching the queued commands, up to the maximum per tick.
+     */
+    private void tick() {
+        dispatch(maxPerTick);
+
+        // Cleaning up the window
+        if (!recent.isEmpty()) {
+            final long limit = System.currentTimeMillis() - window;
+            recent.values().removeIf(time -> time <= limit);
+        }
+    }
+
+    /**
+     * Dispatching the queued commands.
+     *
+     * @param max the maximum amount of commands dispatched
+     */
+    private void dispatch(final int max) {
+        for (int i = 0; i < max; i++) {
+            final Pending pending = queue.poll();
+            if (pending == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            final String command = placeholders ?
+                    me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(plugin.getServer().getOfflinePlayer(pending.uuid), pending.command) : pending.command;
+            try {
+                plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(), command);
+            } catch (final Exception e) {
+                plugin.getLogger().warning("Error while running command '" + command + "' for " + pending.name + ": " + e.getMessage());
+            }
+            dispatched.increment();
+        }
+    }
+
+    /**
+     * Get the amount of commands waiting to be dispatched.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Get the amount of commands dispatched.
+     *
+     * @return the amount of commands dispatched
+     */
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    /**
+     * Get the amount of duplicated commands dropped.
+     *
+     * @return the amount of dropped duplicates
+     */
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * Get the amount of commands dropped because the queue was full.
+     *
+     * @return the amount of dropped commands
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * A queued command, identified by its player and command.
+     * Only the player identity is kept, so the players who quit can be released.
+     */
+    private static final class Pending {
+        private final UUID uuid;
+        private final String name;
+        private final String command;
+
+        private Pending(@NotNull final UUID uuid, @NotNull final String name, @NotNull final String command) {
+            this.uuid = uuid;
+            this.name = name;
+            this.command = command;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Pending)) return false;
+            final Pending pending = (Pending) o;
+            return uuid.equals(pending.uuid) && command.equals(pending.command);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uuid.hashCode() + command.hashCode();
+        }
+    }
+}
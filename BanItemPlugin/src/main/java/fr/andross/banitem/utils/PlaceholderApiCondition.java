@@ -1,6 +1,7 @@
 package fr.andross.banitem.utils;
 
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -15,6 +16,8 @@ public class PlaceholderApiCondition {
     private final String placeholder;
     private final Pattern pattern;
     private final String expectedValue;
+    private final PlaceholderCache cache;
+    private final PlaceholderExpression expression;
 
     /**
      * Prepare a PlaceholderAPI condition check.
@@ -22,11 +25,35 @@ public class PlaceholderApiCondition {
      * <ul>
      * <li><code>%placeholder_value%=expectedValue</code> - for exact string matching</li>
      * <li><code>%placeholder_value%=#expectedRegex</code> - for regex matching</li>
+     * <li>an expression combining comparisons of placeholders, ex.
+     * <code>%vault_eco_balance% &gt; 1000 &amp;&amp; %luckperms_primary_group_name% != vip</code>
+     * - see {@link PlaceholderExpression}</li>
      * </ul>
      *
      * @param placeholderConditionConfiguration a placeholder API condition handler
      */
     public PlaceholderApiCondition(final String placeholderConditionConfiguration) throws IllegalArgumentException {
+        this(placeholderConditionConfiguration, null);
+    }
+
+    /**
+     * Prepare a PlaceholderAPI condition check, getting the placeholder values from a cache.
+     *
+     * @param placeholderConditionConfiguration a placeholder API condition handler
+     * @param cache                             the placeholder values cache, or null to request the values each time
+     * @see #PlaceholderApiCondition(String)
+     */
+    public PlaceholderApiCondition(final String placeholderConditionConfiguration, @Nullable final PlaceholderCache cache) throws IllegalArgumentException {
+        this.cache = cache;
+        if (PlaceholderExpression.isExpression(placeholderConditionConfiguration)) {
+            this.expression = new PlaceholderExpression(placeholderConditionConfiguration);
+            this.placeholder = null;
+            this.pattern = null;
+            this.expectedValue = null;
+            return;
+        }
+        this.expression = null;
+
         if (!placeholderConditionConfiguration.contains("=")) {
             throw new IllegalArgumentException("invalid configuration syntax - must contains an '=' " +
                     "with format \"%placeholder_value%=expectedValue\"");
@@ -56,11 +83,27 @@ public class PlaceholderApiCondition {
      * @return true if the placeholder value matches the configured expected value, otherwise false
      */
     public boolean doesConditionMatch(final Player player) {
-        final String placeholderValue = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, placeholder);
+        if (expression != null) {
+            return expression.evaluate(p -> getValue(player, p));
+        }
+
+        final String placeholderValue = getValue(player, placeholder);
         if (pattern != null) {
             return pattern.matcher(placeholderValue).find();
         } else {
             return expectedValue.equals(placeholderValue);
         }
     }
+
+    /**
+     * Get the current value of the placeholder for the player.
+     *
+     * @param player      the involved player
+     * @param placeholder the placeholder
+     * @return the placeholder value
+     */
+    private String getValue(final Player player, final String placeholder) {
+        return cache != null ? cache.get(player, placeholder) :
+                me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, placeholder);
+    }
 }
@@ -0,0 +1,309 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per player and per placeholder cache of the PlaceholderAPI values, used by the placeholder conditions.
+ * <p>The first value of a placeholder is requested directly. Once older than the ttl, the last known value
+ * is still served, and the value is refreshed at the next tick <i>(or asynchronously, if configured)</i>,
+ * within a time budget per tick.</p>
+ * <p>Refresh latency and served values staleness are measured per placeholder.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class PlaceholderCache {
+    private final Plugin plugin;
+    private final Map<UUID, Map<String, Value>> players = new ConcurrentHashMap<>();
+    private final Queue<Refresh> refreshes = new ConcurrentLinkedQueue<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private volatile long ttl;
+    private long budget;
+    private int taskId = -1;
+
+    /**
+     * Creates a new disabled placeholder cache.
+     *
+     * @param plugin the plugin instance, used to schedule the refreshes
+     */
+    public PlaceholderCache(@NotNull final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Clear the cache and load the configuration.
+     * This must be called from the main thread.
+     *
+     * @param section the <i>placeholderapi-cache</i> configuration section, null to disable the cache
+     */
+    public void reload(@Nullable final ConfigurationSection section) {
+        if (taskId > -1) {
+            plugin.getServer().getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        players.clear();
+        refreshes.clear();
+        stats.clear();
+
+        ttl = section == null ? 0L : Math.max(0L, section.getLong("ttl"));
+        if (ttl == 0) {
+            return;
+        }
+        budget = Math.max(1L, section.getLong("budget", 2)) * 1_000_000L;
+        taskId = section.getBoolean("async-refresh") ?
+                plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, 1L, 1L).getTaskId() :
+                plugin.getServer().getScheduler().runTaskTimer(plugin, this::refresh, 1L, 1L).getTaskId();
+    }
+
+    /**
+     * Get the value of the placeholder for this player.
+     *
+     * @param player      the player
+     * @param placeholder the placeholder
+     * @return the last known value of the placeholder
+     */
+    @NotNull
+    public String get(@NotNull final Player player, @NotNull final String placeholder) {
+        if (ttl == 0) {
+            return request(player, placeholder);
+        }
+
+        final Map<String, Value> values = players.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
+        Value value = values.get(placeholder);
+        if (value == null) {
+            value = new Value(request(player, placeholder));
+            values.put(placeholder, value);
+            return value.value;
+        }
+
+        // Serving the last known value
+        final long age = System.currentTimeMillis() - value.updated;
+        getStats(placeholder).serve(Math.max(0L, age - ttl));
+        if (age > ttl && value.refreshing.compareAndSet(false, true)) {
+            refreshes.add(new Refresh(player.getUniqueId(), placeholder, value));
+        }
+        return value.value;
+    }
+
+    /**
+     * Refreshing the queued values, within the time budget.
+     */
+    private void refresh() {
+        final long end = System.nanoTime() + budget;
+        Refresh r;
+        while (System.nanoTime() < end && (r = refreshes.poll()) != null) {
+            final Player player = plugin.getServer().getPlayer(r.player);
+            if (player == null) {
+                r.value.refreshing.set(false);
+                continue;
+            }
+            r.value.value = request(player, r.placeholder);
+            r.value.updated = System.currentTimeMillis();
+            r.value.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Requesting the value of the placeholder from PlaceholderAPI, measuring the latency.
+     *
+     * @param player      the player
+     * @param placeholder the placeholder
+     * @return the value of the placeholder
+     */
+    @NotNull
+    private String request(@NotNull final Player player, @NotNull final String placeholder) {
+        final long start = System.nanoTime();
+        final String value = me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, placeholder);
+        getStats(placeholder).refresh(System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Get the statistics of the placeholder, creating them if needed.
+     *
+     * @param placeholder the placeholder
+     * @return the statistics of the placeholder
+     */
+    @NotNull
+    private Stats getStats(@NotNull final String placeholder) {
+        return stats.computeIfAbsent(placeholder, k -> new Stats());
+    }
+
+    /**
+     * Remove the cached values of the player.
+     *
+     * @param player the player
+     */
+    public void invalidate(@NotNull final Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Get the configured ttl of the values.
+     *
+     * @return the ttl in milliseconds, 0 if the cache is disabled
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Get the amount of values waiting to be refreshed.
+     *
+     * @return the amount of pending refreshes
+     */
+    public int getPendingRefreshes() {
+        return refreshes.size();
+    }
+
+    /**
+     * Get the statistics per placeholder, since the last reload.
+     *
+     * @return an unmodifiable map of the statistics per placeholder
+     */
+    @NotNull
+    public Map<String, Stats> getStats() {
+        return Collections.unmodifiableMap(new HashMap<>(stats));
+    }
+
+    /**
+     * A cached value.
+     */
+    private static final class Value {
+        private volatile String value;
+        private volatile long updated = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Value(@NotNull final String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * A queued refresh.
+     */
+    private static final class Refresh {
+        private final UUID player;
+        private final String placeholder;
+        private final Value value;
+
+        private Refresh(@NotNull final UUID player, @NotNull final String placeholder, @NotNull final Value value) {
+            this.player = player;
+            this.placeholder = placeholder;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The statistics of a placeholder.
+     */
+    public static final class Stats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder latency = new LongAdder();
+        private final AtomicLong maxLatency = new AtomicLong();
+        private final LongAdder served = new LongAdder();
+        private final LongAdder staleServed = new LongAdder();
+        private final AtomicLong maxStaleness = new AtomicLong();
+
+        private void refresh(final long nanos) {
+            requests.increment();
+            latency.add(nanos);
+            maxLatency.accumulateAndGet(nanos, Math::max);
+        }
+
+        private void serve(final long staleness) {
+            served.increment();
+            if (staleness > 0) {
+                staleServed.increment();
+                maxStaleness.accumulateAndGet(staleness, Math::max);
+            }
+        }
+
+        /**
+         * Get the amount of values requested from PlaceholderAPI.
+         *
+         * @return the amount of requests
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * Get the average latency of the PlaceholderAPI requests.
+         *
+         * @return the average latency, in nanoseconds
+         */
+        public long getAverageLatency() {
+            final long count = requests.sum();
+            return count == 0 ? 0 : latency.sum() / count;
+        }
+
+        /**
+         * Get the maximum latency of the PlaceholderAPI requests.
+         *
+         * @return the maximum latency, in nanoseconds
+         */
+        public long getMaxLatency() {
+            return maxLatency.get();
+        }
+
+        /**
+         * Get the amount of values served from the cache.
+         *
+         * @return the amount of cached values served
+         */
+        public long getServed() {
+            return served.sum();
+        }
+
+        /**
+         * Get the amount of values served while older than the ttl.
+         *
+         * @return the amount of stale values served
+         */
+        public long getStaleServed() {
+            return staleServed.sum();
+        }
+
+        /**
+         * Get the maximum time a value was served after its ttl.
+         *
+         * @return the maximum staleness, in milliseconds
+         */
+        public long getMaxStaleness() {
+            return maxStaleness.get();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A placeholder condition expression, parsed once into an evaluation tree.
+ * <p>Syntax:</p>
+ * <ul>
+ * <li>operands: <code>%placeholder%</code>, numbers, <code>'quoted strings'</code> or bare words</li>
+ * <li>comparisons: <code>= == != &lt; &lt;= &gt; &gt;=</code>, numeric if both sides are numbers,
+ * and <code>~</code> for a regex find</li>
+ * <li>boolean operators: <code>! &amp;&amp; ||</code> and parentheses</li>
+ * </ul>
+ * <p>Example: <code>%vault_eco_balance% &gt; 1000 &amp;&amp; %luckperms_primary_group_name% != vip</code></p>
+ * <p>Each placeholder is resolved at most once per evaluation, and only when needed.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+final class PlaceholderExpression {
+    private static final Pattern LEGACY = Pattern.compile("^%[^%\\s]+%=(#.*|[^\\s=<>~%]+)$");
+    private final String source;
+    private final List<String> placeholders = new ArrayList<>();
+    private final Node root;
+    private int pos;
+
+    /**
+     * Parsing the expression.
+     *
+     * @param source the expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    PlaceholderExpression(@NotNull final String source) throws IllegalArgumentException {
+        this.source = source;
+        this.root = parseOr();
+        skipSpaces();
+        if (pos < source.length()) {
+            throw error("unexpected '" + source.charAt(pos) + "'");
+        }
+    }
+
+    /**
+     * Check if the configuration uses the expression syntax, rather than the
+     * <code>%placeholder%=value</code> or <code>%placeholder%=#regex</code> syntax.
+     * <p>The legacy syntax is detected first: a regex is kept as is <i>(even containing
+     * <code>||</code> or <code>&amp;&amp;</code>)</i>, as a single value without any space,
+     * comparison or placeholder.</p>
+     *
+     * @param configuration the condition configuration
+     * @return true if the configuration is an expression
+     */
+    static boolean isExpression(@NotNull final String configuration) {
+        return !LEGACY.matcher(configuration).matches();
+    }
+
+    /**
+     * Evaluating the expression.
+     *
+     * @param resolver the function resolving a placeholder value
+     * @return the result of the expression
+     */
+    boolean evaluate(@NotNull final Function<String, String> resolver) {
+        return root.test(new Context(resolver, new String[placeholders.size()]));
+    }
+
+    // Parsing
+    private Node parseOr() {
+        Node node = parseAnd();
+        while (consume("||")) {
+            final Node left = node, right = parseAnd();
+            node = c -> left.test(c) || right.test(c);
+        }
+        return node;
+    }
+
+    private Node parseAnd() {
+        Node node = parseUnary();
+        while (consume("&&")) {
+            final Node left = node, right = parseUnary();
+            node = c -> left.test(c) && right.test(c);
+        }
+        return node;
+    }
+
+    private Node parseUnary() {
+        skipSpaces();
+        if (peek("!") && !peek("!=")) {
+            pos++;
+            final Node node = parseUnary();
+            return c -> !node.test(c);
+        }
+        if (consume("(")) {
+            final Node node = parseOr();
+            if (!consume(")")) {
+                throw error("missing ')'");
+            }
+            return node;
+        }
+        return parseComparison();
+    }
+
+    private Node parseComparison() {
+        final Operand left = parseOperand();
+        skipSpaces();
+        final String op;
+        if (consume("==") || consume("=")) {
+            op = "=";
+        } else if (consume("!=")) {
+            op = "!=";
+        } else if (consume("<=")) {
+            op = "<=";
+        } else if (consume(">=")) {
+            op = ">=";
+        } else if (consume("<")) {
+            op = "<";
+        } else if (consume(">")) {
+            op = ">";
+        } else if (consume("~")) {
+            op = "~";
+        } else {
+            throw error("expected a comparison operator");
+        }
+
+        if (op.equals("~")) {
+            final Operand right = parseOperand();
+            if (!(right instanceof Literal)) {
+                throw error("the regex must be a constant");
+            }
+            final Pattern pattern;
+            try {
+                pattern = Pattern.compile(((Literal) right).value);
+            } catch (final PatternSyntaxException e) {
+                throw new IllegalArgumentException("invalid regex pattern entered : " + e.getMessage());
+            }
+            return c -> pattern.matcher(left.get(c)).find();
+        }
+
+        final Operand right = parseOperand();
+        switch (op) {
+            case "=":
+                return c -> equals(left.get(c), right.get(c));
+            case "!=":
+                return c -> !equals(left.get(c), right.get(c));
+            case "<":
+                return c -> compare(left.get(c), right.get(c)) < 0;
+            case "<=":
+                return c -> compare(left.get(c), right.get(c)) <= 0;
+            case ">":
+                return c -> compare(left.get(c), right.get(c)) > 0;
+            default:
+                return c -> compare(left.get(c), right.get(c)) >= 0;
+        }
+    }
+
+    private Operand parseOperand() {
+        skipSpaces();
+        if (pos >= source.length()) {
+            throw error("expected a value");
+        }
+
+        final char first = source.charAt(pos);
+        // Placeholder
+        if (first == '%') {
+            final int end = source.indexOf('%', pos + 1);
+            if (end < 0) {
+                throw error("unclosed placeholder");
+            }
+            final String placeholder = source.substring(pos, end + 1);
+            pos = end + 1;
+            int index = placeholders.indexOf(placeholder);
+            if (index < 0) {
+                index = placeholders.size();
+                placeholders.add(placeholder);
+            }
+            final int slot = index;
+            return c -> c.get(slot, placeholder);
+        }
+
+        // Quoted string
+        if (first == '\'' || first == '"') {
+            final int end = source.indexOf(first, pos + 1);
+            if (end < 0) {
+                throw error("unclosed string");
+            }
+            final String value = source.substring(pos + 1, end);
+            pos = end + 1;
+            return new Literal(value);
+        }
+
+        // Bare word or number
+        final int start = pos;
+        while (pos < source.length() && " \t()!=<>~&|".indexOf(source.charAt(pos)) < 0) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("expected a value");
+        }
+        return new Literal(source.substring(start, pos));
+    }
+
+    private void skipSpaces() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private boolean peek(@NotNull final String token) {
+        skipSpaces();
+        return source.startsWith(token, pos);
+    }
+
+    private boolean consume(@NotNull final String token) {
+        if (peek(token)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    private IllegalArgumentException error(@NotNull final String message) {
+        return new IllegalArgumentException("invalid expression - " + message + " at position " + pos);
+    }
+
+    // Evaluation
+    private static boolean equals(@NotNull final String left, @NotNull final String right) {
+        final Double l = toNumber(left), r = toNumber(right);
+        return l != null && r != null ? l.doubleValue() == r.doubleValue() : left.equals(right);
+    }
+
+    private static int compare(@NotNull final String left, @NotNull final String right) {
+        final Double l = toNumber(left), r = toNumber(right);
+        if (l == null || r == null) {
+            return left.compareToIgnoreCase(right);
+        }
+        return Double.compare(l, r);
+    }
+
+    private static Double toNumber(@NotNull final String value) {
+        final String s = value.trim().toLowerCase(Locale.ROOT);
+        if (s.isEmpty() || !(Character.isDigit(s.charAt(0)) || s.charAt(0) == '-' || s.charAt(0) == '.')) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The placeholders values of one evaluation.
+     */
+    private static final class Context {
+        private final Function<String, String> resolver;
+        private final String[] values;
+
+        private Context(@NotNull final Function<String, String> resolver, @NotNull final String[] values) {
+            this.resolver = resolver;
+            this.values = values;
+        }
+
+        @NotNull
+        private String get(final int slot, @NotNull final String placeholder) {
+            String value = values[slot];
+            if (value == null) {
+                value = resolver.apply(placeholder);
+                values[slot] = value == null ? "" : value;
+            }
+            return values[slot];
+        }
+    }
+
+    /**
+     * A boolean node of the expression.
+     */
+    private interface Node {
+        boolean test(@NotNull final Context c);
+    }
+
+    /**
+     * A value of the expression.
+     */
+    private interface Operand {
+        @NotNull
+        String get(@NotNull final Context c);
+    }
+
+    /**
+     * A constant value.
+     */
+    private static final class Literal implements Operand {
+        private final String value;
+
+        private Literal(@NotNull final String value) {
+            this.value = value;
+        }
+
+        @NotNull
+        @Override
+        public String get(@NotNull final Context c) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import fr.andross.banitem.actions.BanAction;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per player and per action token bucket limiter of the ban messages, animations and log messages.
+ * <p>Each bucket holds up to <i>burst</i> sends and is refilled at <i>rate</i> sends per second.
+ * A send without available token is suppressed and counted.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class RateLimiter {
+    private static final Channel[] CHANNELS = Channel.values();
+    private static final int ACTIONS = BanAction.values().length;
+    private final Map<UUID, Buckets> players = new ConcurrentHashMap<>();
+    private final LongAdder[] suppressed = new LongAdder[CHANNELS.length];
+    private volatile Limits limits = new Limits(null);
+
+    /**
+     * Creates a new rate limiter, disabled until loaded.
+     */
+    public RateLimiter() {
+        for (int i = 0; i < suppressed.length; i++) {
+            suppressed[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Clear the buckets and load the limits.
+     *
+     * @param section the <i>rate-limit</i> configuration section, null to disable the limiter
+     */
+    public void reload(@Nullable final ConfigurationSection section) {
+        limits = new Limits(section);
+        players.clear();
+    }
+
+    /**
+     * Remove the buckets of the player.
+     *
+     * @param player the player
+     */
+    public void invalidate(@NotNull final Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    /**
+     * Try to take a token from the bucket of this player, action and channel.
+     *
+     * @param player  the player involved
+     * @param action  the action involved
+     * @param channel the kind of send
+     * @return true if the send is allowed, false if it must be suppressed
+     */
+    public boolean tryAcquire(@NotNull final Player player, @NotNull final BanAction action, @NotNull final Channel channel) {
+        final Limits limits = this.limits;
+        final int c = channel.ordinal();
+        if (limits.rates[c] <= 0) {
+            return true;
+        }
+
+        final Buckets buckets = players.computeIfAbsent(player.getUniqueId(), k -> new Buckets());
+        if (buckets.tryAcquire(c * ACTIONS + action.ordinal(), limits.rates[c], limits.bursts[c])) {
+            return true;
+        }
+        suppressed[c].increment();
+        return false;
+    }
+
+    /**
+     * Get the amount of sends suppressed for this channel.
+     *
+     * @param channel the kind of send
+     * @return the amount of suppressed sends
+     */
+    public long getSuppressed(@NotNull final Channel channel) {
+        return suppressed[channel.ordinal()].sum();
+    }
+
+    /**
+     * Get the amount of players having buckets.
+     *
+     * @return the amount of players having buckets
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * The kinds of sends limited.
+     */
+    public enum Channel {
+        /**
+         * The ban messages sent to the player.
+         */
+        MESSAGE("messages"),
+        /**
+         * The ban animation (sound and particles).
+         */
+        ANIMATION("animations"),
+        /**
+         * The log messages sent to the players with <i>/banitem log</i> activated.
+         */
+        LOG("log");
+
+        private final String path;
+
+        Channel(@NotNull final String path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * The loaded limits, per channel.
+     */
+    private static final class Limits {
+        private final double[] rates = new double[CHANNELS.length]; // tokens per millisecond
+        private final double[] bursts = new double[CHANNELS.length];
+
+        private Limits(@Nullable final ConfigurationSection section) {
+            if (section == null) {
+                return;
+            }
+            for (final Channel channel : CHANNELS) {
+                final ConfigurationSection s = section.getConfigurationSection(channel.path);
+                if (s != null) {
+                    rates[channel.ordinal()] = Math.max(0, s.getDouble("rate")) / 1000D;
+                    bursts[channel.ordinal()] = Math.max(1, s.getDouble("burst", 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * The buckets of a player, per channel and action.
+     */
+    private static final class Buckets {
+        private final double[] tokens = new double[CHANNELS.length * ACTIONS];
+        private final long[] last = new long[CHANNELS.length * ACTIONS];
+
+        private synchronized boolean tryAcquire(final int i, final double rate, final double burst) {
+            final long now = System.currentTimeMillis();
+            tokens[i] = last[i] == 0 ? burst : Math.min(burst, tokens[i] + (now - last[i]) * rate);
+            last[i] = now;
+            if (tokens[i] < 1) {
+                return false;
+            }
+            tokens[i]--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.audit;
+
+import fr.andross.banitem.actions.BanAction;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A persistent audit log of the bans.
+ * <p>Entries are queued without lock, and written by a background thread, in batches,
+ * into rolling files <i>(one tab separated entry per line)</i>. A new file is started when the current
+ * one reaches the maximum size or age, and only the last files are kept.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class AuditLog {
+    private static final int MAX_PENDING = 100_000;
+    private static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private final File folder;
+    private final Logger logger;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean enabled;
+    private volatile long maxSize;
+    private volatile long maxAge;
+    private volatile int maxFiles;
+    private Thread writer;
+
+    /**
+     * Creates a new audit log, disabled until loaded.
+     *
+     * @param folder the folder of the audit files
+     * @param logger the logger used to report the writing errors
+     */
+    public AuditLog(@NotNull final File folder, @NotNull final Logger logger) {
+        this.folder = folder;
+        this.logger = logger;
+    }
+
+    /**
+     * Load the configuration, starting or stopping the writer.
+     *
+     * @param section the <i>audit</i> configuration section, null to disable the audit log
+     */
+    public synchronized void reload(@Nullable final ConfigurationSection section) {
+        maxSize = section == null ? 0 : Math.max(1L, section.getLong("max-size", 10240)) * 1024L;
+        maxAge = section == null ? 0 : Math.max(1L, section.getLong("max-age", 24)) * 3_600_000L;
+        maxFiles = section == null ? 0 : Math.max(1, section.getInt("max-files", 10));
+        enabled = section != null && section.getBoolean("enabled");
+
+        // Only one writer at a time: a writer still stopping restarts itself once terminated
+        if (enabled && writer == null) {
+            startWriter();
+        } else if (!enabled && writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Record a ban.
+     *
+     * @param player the player involved
+     * @param type   the list which banned the item, <i>blacklist</i> or <i>whitelist</i>
+     * @param action the action involved
+     * @param item   the item name
+     */
+    public void record(@NotNull final Player player, @NotNull final String type, @NotNull final BanAction action, @NotNull final String item) {
+        if (!enabled) {
+            return;
+        }
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.add(new Entry(System.currentTimeMillis(), player.getWorld().getName(), player.getUniqueId(), player.getName(), type, action.getName(), item));
+    }
+
+    /**
+     * Stop the writer, waiting up to 5 seconds for the queued entries to be written.
+     */
+    public void close() {
+        final Thread thread;
+        synchronized (this) {
+            enabled = false;
+            thread = writer;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Start a new writer thread.
+     */
+    private void startWriter() {
+        writer = new Thread(this::write, "BanItem-Audit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * The writer loop, running until the audit log is disabled and the queue is empty.
+     */
+    private void write() {
+        final SimpleDateFormat date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        final StringBuilder sb = new StringBuilder();
+        FileChannel channel = null;
+        long opened = 0;
+        try {
+            while (enabled || !queue.isEmpty()) {
+                // Batching the queued entries
+                sb.setLength(0);
+                Entry e;
+                while (sb.length() < 65536 && (e = queue.poll()) != null) {
+                    pending.decrementAndGet();
+                    sb.append(date.format(new Date(e.time))).append('\t').append(e.world).append('\t')
+                            .append(e.uuid).append('\t').append(e.player).append('\t').append(e.type).append('\t')
+                            .append(e.action).append('\t').append(e.item.replace('\t', ' ').replace('\n', ' ')).append('\n');
+                    written.increment();
+                }
+                if (sb.length() == 0) {
+                    LockSupport.parkNanos(this, FLUSH_INTERVAL);
+                    continue;
+                }
+
+                // Rolling?
+                if (channel != null && (channel.size() >= maxSize || System.currentTimeMillis() - opened >= maxAge)) {
+                    channel.close();
+                    channel = null;
+                }
+                if (channel == null) {
+                    channel = openNewFile();
+                    opened = System.currentTimeMillis();
+                }
+
+                final ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (final IOException ex) {
+            logger.log(Level.WARNING, "Can not write the audit log, disabling it", ex);
+            enabled = false;
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (final IOException ignored) {
+                    // Closing anyway
+                }
+            }
+
+            // Terminated: a new writer can be started, right now if enabled again meanwhile
+            synchronized (this) {
+                writer = null;
+                if (enabled) {
+                    startWriter();
+                }
+            }
+        }
+    }
+
+    /**
+     * Open a new audit file, deleting the oldest files exceeding the maximum amount.
+     *
+     * @return the channel of the new file
+     * @throws IOException if the file can not be created
+     */
+    @NotNull
+    private FileChannel openNewFile() throws IOException {
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("can not create folder " + folder);
+        }
+        final String name = "audit-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(folder, name + ".log");
+        for (int i = 1; file.exists(); i++) {
+            file = new File(folder, name + "-" + i + ".log");
+        }
+
+        final List<File> files = getFiles();
+        for (int i = maxFiles - 1; i < files.size(); i++) {
+            Files.deleteIfExists(files.get(i).toPath());
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Get the audit files, newest first.
+     *
+     * @return the audit files
+     */
+    @NotNull
+    private List<File> getFiles() {
+        final File[] files = folder.listFiles((dir, name) -> name.startsWith("audit-") && name.endsWith(".log"));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        final List<File> list = new ArrayList<>(Arrays.asList(files));
+        list.sort(Comparator.comparingLong(File::lastModified).thenComparing(File::getName).reversed());
+        return list;
+    }
+
+    /**
+     * Search the most recent entries, newest last.
+     * The files are read line by line, newest file first, until enough entries are found.
+     *
+     * @param player the player name to match, or null for all
+     * @param item   the item name to match, or null for all
+     * @param limit  the maximum amount of entries
+     * @return the matching entries, as written <i>(tab separated)</i>
+     * @throws IOException if a file can not be read
+     */
+    @NotNull
+    public List<String> search(@Nullable final String player, @Nullable final String item, final int limit) throws IOException {
+        final LinkedList<String> results = new LinkedList<>();
+        for (final File file : getFiles()) {
+            final ArrayDeque<String> matches = new ArrayDeque<>();
+            try (final BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String[] split = line.split("\t", 7);
+                    if (split.length < 7 ||
+                            (player != null && !split[3].equalsIgnoreCase(player)) ||
+                            (item != null && !split[6].equalsIgnoreCase(item))) {
+                        continue;
+                    }
+                    matches.addLast(line);
+                    if (matches.size() > limit - results.size()) {
+                        matches.removeFirst();
+                    }
+                }
+            }
+            while (!matches.isEmpty()) {
+                results.addFirst(matches.removeLast());
+            }
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Check if the audit log is enabled.
+     *
+     * @return true if the bans are recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the amount of entries waiting to be written.
+     *
+     * @return the amount of pending entries
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Get the amount of entries written.
+     *
+     * @return the amount of entries written
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Get the amount of entries dropped because the queue was full.
+     *
+     * @return the amount of dropped entries
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * An audit entry.
+     */
+    private static final class Entry {
+        private final long time;
+        private final String world;
+        private final UUID uuid;
+        private final String player;
+        private final String type;
+        private final String action;
+        private final String item;
+
+        private Entry(final long time, @NotNull final String world, @NotNull final UUID uuid, @NotNull final String player,
+                      @NotNull final String type, @NotNull final String action, @NotNull final String item) {
+            this.time = time;
+            this.world = world;
+            this.uuid = uuid;
+            this.player = player;
+            this.type = type;
+            this.action = action;
+            this.item = item;
+        }
+    }
+}
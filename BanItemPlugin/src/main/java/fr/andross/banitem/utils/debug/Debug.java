@@ -35,6 +35,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -46,6 +47,7 @@ import java.util.stream.Collectors;
  * @version 3.1
  */
 public final class Debug implements Cloneable {
+    private static final ThreadLocal<List<Runnable>> CAPTURED = new ThreadLocal<>();
     private final BanConfig banConfig;
     private final CommandSender sender;
     private List<DebugMessage> nodes = new ArrayList<>();
@@ -218,17 +220,51 @@ public final class Debug implements Cloneable {
 
     /**
      * Send this debug message to the sender.
+     * If the current thread is capturing the debug messages, the message is only sent when the capture is flushed.
      */
     public void sendDebug() {
+        final List<String> messages;
         if (!banConfig.getConfig().getBoolean("debug.errors")) {
-            sender.sendMessage(sender instanceof Player ? getSimpleDebug() : Chat.stripColors(getSimpleDebug()));
+            messages = Collections.singletonList(sender instanceof Player ? getSimpleDebug() : Chat.stripColors(getSimpleDebug()));
         } else {
             if (sender instanceof Player) {
-                getBetterDebug().forEach(sender::sendMessage);
+                messages = getBetterDebug();
             } else {
-                getBetterDebug().stream().map(Chat::stripColors).forEach(sender::sendMessage);
+                messages = getBetterDebug().stream().map(Chat::stripColors).collect(Collectors.toList());
             }
         }
+
+        final Runnable send = () -> messages.forEach(sender::sendMessage);
+        final List<Runnable> captured = CAPTURED.get();
+        if (captured == null) {
+            send.run();
+        } else {
+            captured.add(send);
+        }
+    }
+
+    /**
+     * Run the task, capturing all debug messages sent by the current thread meanwhile.
+     * This is used to send the debug messages in the configuration order, when the entries are compiled before being merged.
+     *
+     * @param task the task to run
+     * @return the captured debug messages, to run in order to send them
+     */
+    @NotNull
+    public static List<Runnable> capture(@NotNull final Runnable task) {
+        final List<Runnable> previous = CAPTURED.get();
+        final List<Runnable> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CAPTURED.remove();
+            } else {
+                CAPTURED.set(previous);
+            }
+        }
+        return captured;
     }
 
     @Override
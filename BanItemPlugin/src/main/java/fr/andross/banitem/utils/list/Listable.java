@@ -25,7 +25,9 @@ import fr.andross.banitem.items.BannedItem;
 import fr.andross.banitem.utils.Chat;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.enchantments.EnchantmentHelper;
+import fr.andross.banitem.utils.hooks.IRegionProvider;
 import fr.andross.banitem.utils.hooks.IWorldGuardHook;
+import fr.andross.banitem.utils.hooks.RegionCache;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
@@ -39,7 +41,9 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -53,12 +57,22 @@ import java.util.stream.Stream;
  * @version 3.1
  */
 public abstract class Listable {
+    private static volatile SelectorCache selectorCache;
 
     /**
      * Static utility class
      */
     private Listable() {}
 
+    /**
+     * Set the selectors cache used while loading, or null to resolve the selectors without cache.
+     *
+     * @param cache the selectors cache of the current load
+     */
+    public static void setSelectorCache(@Nullable final SelectorCache cache) {
+        selectorCache = cache;
+    }
+
     /**
      * Split a string into a list of string, based on ',' character.
      * Each item will be trimmed.
@@ -219,6 +233,11 @@ public abstract class Listable {
                     continue;
                 }
                 // Getting world
+                final SelectorCache cache = selectorCache;
+                if (cache != null) {
+                    worlds.addAll(cache.getWorlds(worldName.substring(1), pattern));
+                    continue;
+                }
                 Bukkit.getWorlds().stream()
                         .filter(w -> pattern.matcher(w.getName()).find())
                         .forEach(worlds::add);
@@ -283,12 +302,18 @@ public abstract class Listable {
                     continue;
                 }
                 // Getting materials
+                final SelectorCache cache = selectorCache;
+                if (cache != null) {
+                    materials.addAll(cache.getMaterials(materialName.substring(1), pattern));
+                    continue;
+                }
                 Arrays.stream(Material.values()).filter(m -> pattern.matcher(m.name()).find()).forEach(materials::add);
                 continue;
             }
 
             if (materialName.equals("*")) {
-                materials.addAll(Arrays.asList(Material.values()));
+                final SelectorCache cache = selectorCache;
+                materials.addAll(cache == null ? Arrays.asList(Material.values()) : cache.getAllMaterials());
                 continue;
             }
 
@@ -355,6 +380,11 @@ public abstract class Listable {
                         .filter(e -> pattern.matcher(e.getKey()).find())
                         .forEach(e -> items.add(e.getValue()));
                 // Getting from materials
+                final SelectorCache cache = selectorCache;
+                if (cache != null) {
+                    items.addAll(cache.getItems(itemName.substring(1), pattern));
+                    continue;
+                }
                 Stream.of(Material.values())
                         .filter(m -> pattern.matcher(m.name()).find())
                         .forEach(m -> items.add(new BannedItem(m)));
@@ -362,7 +392,8 @@ public abstract class Listable {
             }
 
             if (itemName.equals("*")) {
-                items.addAll(Arrays.stream(Material.values()).map(BannedItem::new).collect(Collectors.toList()));
+                final SelectorCache cache = selectorCache;
+                items.addAll(cache == null ? Arrays.stream(Material.values()).map(BannedItem::new).collect(Collectors.toList()) : cache.getAllItems());
                 continue;
             }
 
@@ -470,6 +501,64 @@ public abstract class Listable {
         return list;
     }
 
+    /**
+     * Get the names of regions (WorldGuard or native regions), as identified by the regions provider.
+     * The regions are bound to their name, so they stay valid after a regions reload.
+     *
+     * @param pl     the plugin instance
+     * @param obj    object to get a list from
+     * @param d      debugger, returning empty set if null and if there is any error
+     * @param worlds list of worlds where to get the regions
+     * @return a set containing the regions names
+     */
+    @NotNull
+    public static Set<String> getRegionNames(@NotNull final BanItem pl,
+                                             @NotNull final Object obj,
+                                             @Nullable final Debug d,
+                                             @NotNull final Collection<World> worlds) {
+        final Set<String> names = new LinkedHashSet<>();
+        final List<String> strings = getSplitStringList(obj);
+        if (strings.isEmpty()) {
+            return names;
+        }
+
+        // Getting regions provider
+        final RegionCache regionCache = pl.getHooks().getRegionCache();
+        if (regionCache == null) {
+            return names;
+        }
+        final IRegionProvider provider = regionCache.getProvider();
+
+        for (String key : strings) {
+            if (key.equals("*")) {
+                // Getting all regions
+                worlds.forEach(w -> names.addAll(provider.getRegionNames(w)));
+                continue;
+            }
+
+            final boolean remove = key.startsWith("!");
+            if (remove) {
+                key = key.substring(1);
+            }
+
+            // Getting regions
+            for (final World w : worlds) {
+                final String region = provider.getRegionName(w, key);
+                if (region == null) {
+                    if (d != null) {
+                        d.clone().add(ListType.REGION, "&cUnknown region &e&l" + key + "&c for world &e&l" + w.getName() + "&c.").sendDebug();
+                    }
+                } else if (remove) {
+                    names.remove(region);
+                } else {
+                    names.add(region);
+                }
+            }
+        }
+
+        return names;
+    }
+
     /**
      * This method will try to get an element for the given type.
      *
@@ -0,0 +1,210 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.list;
+
+import fr.andross.banitem.items.BannedItem;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A cache of the selectors <i>(regex and wildcard keys)</i> resolutions, used during one load.
+ * Material regexes which are simple literals <i>(ex. {@code #_SWORD$}, {@code #^DIAMOND_}, {@code #.*_AXE})</i>
+ * are resolved with a sorted name index, without running the regex over every material.
+ * <p>The resolved lists are shared, and must not be modified.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class SelectorCache {
+    private static final Material[] MATERIALS = Material.values();
+    private final Map<String, List<Material>> materials = new ConcurrentHashMap<>();
+    private final Map<String, List<BannedItem>> items = new ConcurrentHashMap<>();
+    private final Map<String, List<World>> worlds = new ConcurrentHashMap<>();
+    private volatile NameIndex index;
+
+    /**
+     * Get the materials matching this regex.
+     *
+     * @param regex the regex, without the '#' prefix
+     * @param pattern the compiled regex, used if the regex can not be resolved with the name index
+     * @return the matching materials, in the materials order
+     */
+    @NotNull
+    List<Material> getMaterials(@NotNull final String regex, @NotNull final Pattern pattern) {
+        return materials.computeIfAbsent(regex, k -> {
+            final List<Material> indexed = getIndex().lookup(k);
+            return indexed != null ? indexed : Collections.unmodifiableList(Arrays.stream(MATERIALS)
+                    .filter(m -> pattern.matcher(m.name()).find())
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    /**
+     * Get all the materials.
+     *
+     * @return all the materials
+     */
+    @NotNull
+    List<Material> getAllMaterials() {
+        return materials.computeIfAbsent("*", k -> Collections.unmodifiableList(Arrays.asList(MATERIALS)));
+    }
+
+    /**
+     * Get the items of the materials matching this regex.
+     *
+     * @param regex   the regex, without the '#' prefix
+     * @param pattern the compiled regex
+     * @return the matching materials items, in the materials order
+     */
+    @NotNull
+    List<BannedItem> getItems(@NotNull final String regex, @NotNull final Pattern pattern) {
+        return items.computeIfAbsent("#" + regex, k -> toItems(getMaterials(regex, pattern)));
+    }
+
+    /**
+     * Get the items of all the materials.
+     *
+     * @return the items of all the materials
+     */
+    @NotNull
+    List<BannedItem> getAllItems() {
+        return items.computeIfAbsent("*", k -> toItems(getAllMaterials()));
+    }
+
+    /**
+     * Get the worlds matching this regex.
+     *
+     * @param regex   the regex, without the '#' prefix
+     * @param pattern the compiled regex
+     * @return the matching worlds
+     */
+    @NotNull
+    List<World> getWorlds(@NotNull final String regex, @NotNull final Pattern pattern) {
+        return worlds.computeIfAbsent(regex, k -> Collections.unmodifiableList(Bukkit.getWorlds().stream()
+                .filter(w -> pattern.matcher(w.getName()).find())
+                .collect(Collectors.toList())));
+    }
+
+    @NotNull
+    private static List<BannedItem> toItems(@NotNull final List<Material> materials) {
+        return Collections.unmodifiableList(materials.stream().map(BannedItem::new).collect(Collectors.toList()));
+    }
+
+    @NotNull
+    private NameIndex getIndex() {
+        NameIndex i = index;
+        if (i == null) {
+            i = new NameIndex();
+            index = i;
+        }
+        return i;
+    }
+
+    /**
+     * Sorted tables of the materials names, and reversed names, to resolve prefix and suffix lookups.
+     */
+    private static final class NameIndex {
+        private final String[] names;
+        private final Material[] byName;
+        private final String[] reversedNames;
+        private final Material[] byReversedName;
+
+        private NameIndex() {
+            final Material[] sorted = MATERIALS.clone();
+            Arrays.sort(sorted, Comparator.comparing(Material::name));
+            byName = sorted;
+            names = Arrays.stream(sorted).map(Material::name).toArray(String[]::new);
+
+            final Material[] reversed = MATERIALS.clone();
+            final Function<Material, String> reverse = m -> new StringBuilder(m.name()).reverse().toString();
+            Arrays.sort(reversed, Comparator.comparing(reverse));
+            byReversedName = reversed;
+            reversedNames = Arrays.stream(reversed).map(reverse).toArray(String[]::new);
+        }
+
+        /**
+         * Resolving the regex if it is a literal, optionally anchored.
+         *
+         * @param regex the regex
+         * @return the matching materials in the materials order, or null if the regex is not a simple literal
+         */
+        @Nullable
+        private List<Material> lookup(@NotNull final String regex) {
+            String literal = regex;
+            boolean start = false;
+            boolean end = false;
+            if (literal.startsWith("^")) {
+                start = true;
+                literal = literal.substring(1);
+            }
+            while (literal.startsWith(".*")) {
+                start = false;
+                literal = literal.substring(2);
+            }
+            if (literal.endsWith("$")) {
+                end = true;
+                literal = literal.substring(0, literal.length() - 1);
+            }
+            while (literal.endsWith(".*")) {
+                end = false;
+                literal = literal.substring(0, literal.length() - 2);
+            }
+            if (literal.isEmpty() || !literal.chars().allMatch(c -> c == '_' || Character.isLetterOrDigit(c))) {
+                return null;
+            }
+
+            final String exact = literal;
+            final List<Material> result = new ArrayList<>();
+            if (start) {
+                range(names, byName, literal, result);
+                if (end) {
+                    result.removeIf(m -> !m.name().equals(exact));
+                }
+            } else if (end) {
+                range(reversedNames, byReversedName, new StringBuilder(literal).reverse().toString(), result);
+            } else {
+                Arrays.stream(MATERIALS).filter(m -> m.name().contains(exact)).forEach(result::add);
+                return Collections.unmodifiableList(result);
+            }
+            result.sort(Comparator.comparingInt(Material::ordinal));
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * Add all the materials which sorted key starts with the prefix.
+         */
+        private static void range(final String[] keys, final Material[] values, final String prefix, final List<Material> result) {
+            int i = Arrays.binarySearch(keys, prefix);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            for (; i < keys.length && keys[i].startsWith(prefix); i++) {
+                result.add(values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.metrics;
+
+import fr.andross.banitem.BanDatabase;
+import fr.andross.banitem.BanItem;
+import fr.andross.banitem.actions.BanAction;
+import fr.andross.banitem.utils.PlaceholderCache;
+import fr.andross.banitem.utils.RateLimiter;
+import fr.andross.banitem.utils.hooks.RegionCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The runtime metrics of the plugin: checks and bans per action, blacklist and whitelist hits,
+ * checks latency per path, inventory scan duration and the caches sizes.
+ * <p>Counters are lock free, the caches gauges are read when the metrics are exported.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class BanMetrics {
+    private static final BanAction[] ACTIONS = BanAction.values();
+
+    /**
+     * The path of a ban check.
+     */
+    public enum Path {
+        /**
+         * A check involving a player.
+         */
+        PLAYER,
+        /**
+         * A check involving only a world.
+         */
+        WORLD
+    }
+
+    /**
+     * A measure of the inventory scan scheduler.
+     */
+    public enum Scan {
+        /**
+         * The time spent scanning in one tick.
+         */
+        SLICE,
+        /**
+         * The time spent scanning all the players once, over the ticks.
+         */
+        PASS
+    }
+
+    private final BanItem plugin;
+    private final LongAdder[] checks = newAdders(ACTIONS.length);
+    private final LongAdder[] bans = newAdders(ACTIONS.length);
+    private final LongAdder[] blacklistHits = newAdders(ACTIONS.length);
+    private final LongAdder[] whitelistDenials = newAdders(ACTIONS.length);
+    private final Histogram[] latencies = {new Histogram(), new Histogram()};
+    private final Histogram[] scans = {new Histogram(), new Histogram()};
+
+    /**
+     * Creates the metrics of the plugin.
+     *
+     * @param plugin the ban item plugin instance
+     */
+    public BanMetrics(@NotNull final BanItem plugin) {
+        this.plugin = plugin;
+    }
+
+    @NotNull
+    private static LongAdder[] newAdders(final int size) {
+        final LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Record a ban check.
+     *
+     * @param action the action checked
+     * @param path   the path of the check
+     * @param start  the {@link System#nanoTime()} at the start of the check
+     * @param banned the result of the check
+     * @return the result of the check
+     */
+    public boolean recordCheck(@NotNull final BanAction action, @NotNull final Path path, final long start, final boolean banned) {
+        latencies[path.ordinal()].observe(System.nanoTime() - start);
+        checks[action.ordinal()].increment();
+        if (banned) {
+            bans[action.ordinal()].increment();
+        }
+        return banned;
+    }
+
+    /**
+     * Record an item banned by the blacklist.
+     *
+     * @param action the action
+     */
+    public void recordBlacklistHit(@NotNull final BanAction action) {
+        blacklistHits[action.ordinal()].increment();
+    }
+
+    /**
+     * Record an item not allowed by the whitelist.
+     *
+     * @param action the action
+     */
+    public void recordWhitelistDenial(@NotNull final BanAction action) {
+        whitelistDenials[action.ordinal()].increment();
+    }
+
+    /**
+     * Record a scan duration.
+     *
+     * @param scan  the scan measure
+     * @param start the {@link System#nanoTime()} at the start of the scan
+     */
+    public void recordScan(@NotNull final Scan scan, final long start) {
+        scans[scan.ordinal()].observe(System.nanoTime() - start);
+    }
+
+    /**
+     * Get the amount of checks of an action.
+     *
+     * @param action the action
+     * @return the amount of checks
+     */
+    public long getChecks(@NotNull final BanAction action) {
+        return checks[action.ordinal()].sum();
+    }
+
+    /**
+     * Get the amount of bans of an action.
+     *
+     * @param action the action
+     * @return the amount of bans
+     */
+    public long getBans(@NotNull final BanAction action) {
+        return bans[action.ordinal()].sum();
+    }
+
+    /**
+     * Get the checks latency histogram of a path.
+     *
+     * @param path the path
+     * @return the latency histogram
+     */
+    @NotNull
+    public Histogram getLatency(@NotNull final Path path) {
+        return latencies[path.ordinal()];
+    }
+
+    /**
+     * Get the duration histogram of a scan measure.
+     *
+     * @param scan the scan measure
+     * @return the duration histogram
+     */
+    @NotNull
+    public Histogram getScan(@NotNull final Scan scan) {
+        return scans[scan.ordinal()];
+    }
+
+    /**
+     * Export all the metrics in the Prometheus text format.
+     *
+     * @return the metrics
+     */
+    @NotNull
+    public String toPrometheus() {
+        final StringBuilder sb = new StringBuilder(8192);
+
+        // Per action counters
+        writeActions(sb, "banitem_checks_total", "Ban checks per action.", checks);
+        writeActions(sb, "banitem_bans_total", "Ban checks returning banned per action.", bans);
+        writeActions(sb, "banitem_blacklist_hits_total", "Items banned by the blacklist per action.", blacklistHits);
+        writeActions(sb, "banitem_whitelist_denials_total", "Items not allowed by the whitelist per action.", whitelistDenials);
+
+        // Latencies
+        header(sb, "banitem_check_duration_seconds", "Latency of the ban checks per path.", "histogram");
+        for (final Path path : Path.values()) {
+            latencies[path.ordinal()].write(sb, "banitem_check_duration_seconds", "path=\"" + path.name().toLowerCase(Locale.ROOT) + "\"");
+        }
+        header(sb, "banitem_scan_duration_seconds", "Time spent by the inventory scanner, per tick (slice) and per pass over all players.", "histogram");
+        for (final Scan scan : Scan.values()) {
+            scans[scan.ordinal()].write(sb, "banitem_scan_duration_seconds", "scan=\"" + scan.name().toLowerCase(Locale.ROOT) + "\"");
+        }
+
+        // Caches
+        final BanDatabase database = plugin.getBanDatabase();
+        if (database != null) {
+            counter(sb, "banitem_match_cache_hits_total", "Custom items match cache hits.", database.getMatchCacheHits());
+            counter(sb, "banitem_match_cache_misses_total", "Custom items match cache misses.", database.getMatchCacheMisses());
+            gauge(sb, "banitem_match_cache_size", "Custom items match cache size.", database.getMatchCacheSize());
+        }
+        gauge(sb, "banitem_bypass_cache_size", "Players in the bypass permissions cache.", plugin.getUtils().getBypassCache().size());
+        gauge(sb, "banitem_cooldowns_size", "Active cooldowns.", plugin.getUtils().getCooldowns().size());
+        counter(sb, "banitem_cooldowns_evictions_total", "Expired cooldowns evicted.", plugin.getUtils().getCooldowns().getEvictions());
+        gauge(sb, "banitem_rate_limiter_size", "Players in the rate limiter.", plugin.getUtils().getRateLimiter().size());
+        header(sb, "banitem_rate_limited_total", "Messages, animations and logs suppressed by the rate limiter.", "counter");
+        for (final RateLimiter.Channel channel : RateLimiter.Channel.values()) {
+            sb.append("banitem_rate_limited_total{channel=\"").append(channel.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                    .append(plugin.getUtils().getRateLimiter().getSuppressed(channel)).append('\n');
+        }
+        final RegionCache regionCache = plugin.getHooks() == null ? null : plugin.getHooks().getRegionCache();
+        if (regionCache != null) {
+            gauge(sb, "banitem_region_cache_size", "Players in the region cache.", regionCache.size());
+        }
+        gauge(sb, "banitem_run_queue_depth", "Commands waiting to be dispatched.", plugin.getUtils().getCommandDispatcher().getQueueDepth());
+        counter(sb, "banitem_run_dispatched_total", "Commands dispatched.", plugin.getUtils().getCommandDispatcher().getDispatched());
+        counter(sb, "banitem_run_duplicates_total", "Duplicate commands dropped.", plugin.getUtils().getCommandDispatcher().getDuplicates());
+        counter(sb, "banitem_run_dropped_total", "Commands dropped because the queue was full.", plugin.getUtils().getCommandDispatcher().getDropped());
+        gauge(sb, "banitem_audit_pending", "Audit entries waiting to be written.", plugin.getUtils().getAuditLog().getPending());
+        counter(sb, "banitem_audit_written_total", "Audit entries written.", plugin.getUtils().getAuditLog().getWritten());
+        counter(sb, "banitem_audit_dropped_total", "Audit entries dropped.", plugin.getUtils().getAuditLog().getDropped());
+
+        // Placeholders
+        final Map<String, PlaceholderCache.Stats> stats = plugin.getUtils().getPlaceholderCache().getStats();
+        gauge(sb, "banitem_placeholder_pending_refreshes", "Placeholder values waiting to be refreshed.", plugin.getUtils().getPlaceholderCache().getPendingRefreshes());
+        if (!stats.isEmpty()) {
+            header(sb, "banitem_placeholder_requests_total", "Values requested from PlaceholderAPI.", "counter");
+            stats.forEach((k, v) -> sb.append("banitem_placeholder_requests_total{placeholder=\"").append(escape(k)).append("\"} ").append(v.getRequests()).append('\n'));
+            header(sb, "banitem_placeholder_served_total", "Placeholder values served from the cache.", "counter");
+            stats.forEach((k, v) -> sb.append("banitem_placeholder_served_total{placeholder=\"").append(escape(k)).append("\"} ").append(v.getServed()).append('\n'));
+            header(sb, "banitem_placeholder_latency_seconds", "Average latency of the PlaceholderAPI requests.", "gauge");
+            stats.forEach((k, v) -> sb.append("banitem_placeholder_latency_seconds{placeholder=\"").append(escape(k)).append("\"} ").append(v.getAverageLatency() / 1e9).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    private static void writeActions(@NotNull final StringBuilder sb, @NotNull final String name, @NotNull final String help, @NotNull final LongAdder[] adders) {
+        header(sb, name, help, "counter");
+        for (final BanAction action : ACTIONS) {
+            final long value = adders[action.ordinal()].sum();
+            if (value > 0) {
+                sb.append(name).append("{action=\"").append(action.getName()).append("\"} ").append(value).append('\n');
+            }
+        }
+    }
+
+    private static void header(@NotNull final StringBuilder sb, @NotNull final String name, @NotNull final String help, @NotNull final String type) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void counter(@NotNull final StringBuilder sb, @NotNull final String name, @NotNull final String help, final long value) {
+        header(sb, name, help, "counter");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(@NotNull final StringBuilder sb, @NotNull final String name, @NotNull final String help, final long value) {
+        header(sb, name, help, "gauge");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    @NotNull
+    private static String escape(@NotNull final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
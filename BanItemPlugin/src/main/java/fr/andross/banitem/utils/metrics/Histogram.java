@@ -0,0 +1,126 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free latency histogram, with fixed buckets from 1µs to 50ms.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class Histogram {
+    private static final long[] BOUNDS = {
+            1_000L, 5_000L, 10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L
+    };
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public Histogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration, in nanoseconds
+     */
+    public void observe(final long nanos) {
+        int i = 0;
+        while (i < BOUNDS.length && nanos > BOUNDS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sum.add(nanos);
+    }
+
+    /**
+     * Get the amount of durations recorded.
+     *
+     * @return the amount of durations recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (final LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Get the total of the durations recorded.
+     *
+     * @return the total duration, in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get an approximation of a percentile, as the upper bound of its bucket.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the upper bound of the bucket, in nanoseconds, or -1 if above the last bucket or if empty
+     */
+    public long getPercentile(final double percentile) {
+        final long count = getCount();
+        if (count == 0) {
+            return -1;
+        }
+        final long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return BOUNDS[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Append this histogram in the Prometheus text format.
+     *
+     * @param sb     the builder
+     * @param name   the metric name
+     * @param labels the labels, without braces, can be empty
+     */
+    void write(@NotNull final StringBuilder sb, @NotNull final String name, @NotNull final String labels) {
+        final String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            sb.append(name).append("_bucket{").append(prefix).append("le=\"").append(BOUNDS[i] / 1e9).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[BOUNDS.length].sum();
+        sb.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        final String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        sb.append(name).append("_sum").append(braces).append(' ').append(sum.sum() / (double) TimeUnit.SECONDS.toNanos(1)).append('\n');
+        sb.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * An embedded HTTP endpoint serving the metrics in the Prometheus text format.
+ * It is only bound to the loopback address.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class MetricsServer {
+    private final BanMetrics metrics;
+    private final Logger logger;
+    private HttpServer server;
+    private ExecutorService executor;
+    private int port = -1;
+
+    /**
+     * Creates the metrics endpoint, stopped until loaded.
+     *
+     * @param metrics the metrics to serve
+     * @param logger  the logger
+     */
+    public MetricsServer(@NotNull final BanMetrics metrics, @NotNull final Logger logger) {
+        this.metrics = metrics;
+        this.logger = logger;
+    }
+
+    /**
+     * Load the configuration, starting, restarting or stopping the endpoint.
+     *
+     * @param section the <i>metrics</i> configuration section, null to stop the endpoint
+     */
+    public synchronized void reload(@Nullable final ConfigurationSection section) {
+        final boolean enabled = section != null && section.getBoolean("http.enabled");
+        final int newPort = section == null ? -1 : section.getInt("http.port", 9225);
+        if (enabled && server != null && port == newPort) {
+            return;
+        }
+        close();
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), newPort), 0);
+            server.createContext("/metrics", exchange -> {
+                try {
+                    final byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (final OutputStream os = exchange.getResponseBody()) {
+                        os.write(body);
+                    }
+                } finally {
+                    exchange.close();
+                }
+            });
+            executor = Executors.newSingleThreadExecutor(r -> {
+                final Thread thread = new Thread(r, "BanItem-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(executor);
+            server.start();
+            port = newPort;
+        } catch (final IOException e) {
+            logger.warning("Can not start the metrics endpoint on port " + newPort + ": " + e.getMessage());
+            server = null;
+        }
+    }
+
+    /**
+     * Stop the endpoint, if started.
+     */
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            port = -1;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.scanners;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A snapshot of a player inventory, taken once per scan and shared by all the {@link ScanCheck}.
+ * The changes made through the snapshot are applied to the inventory, and kept in the snapshot
+ * so the next checks see them.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class InventorySnapshot {
+    private final PlayerInventory inventory;
+    private final ItemStack[] contents;
+    private final ItemStack[] armor;
+
+    /**
+     * Take a snapshot of the player inventory.
+     *
+     * @param player the player
+     */
+    public InventorySnapshot(@NotNull final Player player) {
+        this.inventory = player.getInventory();
+        this.contents = inventory.getContents();
+        this.armor = inventory.getArmorContents();
+    }
+
+    /**
+     * Get the inventory contents, as {@link PlayerInventory#getContents()}.
+     * This array must not be modified, use {@link #setItem(int, ItemStack)}.
+     *
+     * @return the inventory contents
+     */
+    @NotNull
+    public ItemStack[] getContents() {
+        return contents;
+    }
+
+    /**
+     * Get the armor contents, as {@link PlayerInventory#getArmorContents()} <i>(boots, leggings, chestplate, helmet)</i>.
+     * This array must not be modified, use {@link #setArmor(int, ItemStack)}.
+     *
+     * @return the armor contents
+     */
+    @NotNull
+    public ItemStack[] getArmor() {
+        return armor;
+    }
+
+    /**
+     * Set an item in the inventory.
+     *
+     * @param slot the slot, as in {@link #getContents()}
+     * @param item the item, or null to remove it
+     */
+    public void setItem(final int slot, @Nullable final ItemStack item) {
+        inventory.setItem(slot, item);
+        contents[slot] = item;
+    }
+
+    /**
+     * Set an armor piece.
+     *
+     * @param index the index, as in {@link #getArmor()}
+     * @param item  the item, or null to remove it
+     */
+    public void setArmor(final int index, @Nullable final ItemStack item) {
+        switch (index) {
+            case 0:
+                inventory.setBoots(item);
+                break;
+            case 1:
+                inventory.setLeggings(item);
+                break;
+            case 2:
+                inventory.setChestplate(item);
+                break;
+            case 3:
+                inventory.setHelmet(item);
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid armor index " + index);
+        }
+        armor[index] = item;
+
+        // MC1.9+: the contents also include the armor, after the storage slots
+        if (contents.length >= 40) {
+            contents[36 + index] = item;
+        }
+    }
+
+    /**
+     * Give an item back to the player, into the first empty slot, or drop it if the inventory is full.
+     *
+     * @param player the player
+     * @param item   the item
+     * @see fr.andross.banitem.BanUtils#giveItemBack(Player, ItemStack)
+     */
+    public void giveItemBack(@NotNull final Player player, @NotNull final ItemStack item) {
+        final int freeSlot = inventory.firstEmpty();
+        // No empty space, dropping it, else adding it into inventory
+        if (freeSlot == -1) {
+            player.getWorld().dropItemNaturally(player.getLocation(), item);
+        } else {
+            setItem(freeSlot, item);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.scanners;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A check run by the {@link ScanScheduler} on each scanned player.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+@FunctionalInterface
+public interface ScanCheck {
+
+    /**
+     * Check the player inventory. This is run on the main thread.
+     *
+     * @param player   the player
+     * @param snapshot the inventory snapshot, shared by all the checks of this player
+     */
+    void check(@NotNull Player player, @NotNull InventorySnapshot snapshot);
+}
@@ -0,0 +1,169 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.scanners;
+
+import fr.andross.banitem.BanItem;
+import fr.andross.banitem.utils.metrics.BanMetrics;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single time sliced scheduler for the inventory scanners.
+ * <p>A pass scans every online player once, with a rolling cursor spread over the ticks of the interval,
+ * within a time budget per tick. Each player inventory is snapshotted once per pass, and all the
+ * registered {@link ScanCheck} are run against this snapshot, on the main thread.</p>
+ * <p>If the budget does not allow to scan everyone within the interval, the pass continues
+ * on the next ticks, and the next pass starts right after.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class ScanScheduler {
+    private final BanItem plugin;
+    private final List<ScanCheck> checks = new ArrayList<>();
+    private int interval = 16;
+    private long budget = TimeUnit.MICROSECONDS.toNanos(1000);
+    private int taskId = -1;
+
+    // Current pass
+    private List<Player> pass = new ArrayList<>();
+    private int cursor;
+    private int ticks;
+    private long passCost;
+
+    /**
+     * Creates the scan scheduler, stopped until a check is registered.
+     *
+     * @param plugin the ban item plugin instance
+     */
+    public ScanScheduler(@NotNull final BanItem plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Load the configuration.
+     *
+     * @param section the <i>scanner</i> configuration section, null for the defaults
+     */
+    public void reload(@Nullable final ConfigurationSection section) {
+        interval = section == null ? 16 : Math.max(1, section.getInt("interval", 16));
+        budget = TimeUnit.MICROSECONDS.toNanos(section == null ? 1000 : Math.max(1, section.getLong("budget", 1000)));
+    }
+
+    /**
+     * Register a check, starting the scheduler if needed.
+     *
+     * @param check the check
+     */
+    public void register(@NotNull final ScanCheck check) {
+        if (!checks.contains(check)) {
+            checks.add(check);
+        }
+        if (taskId < 0 || !plugin.getServer().getScheduler().isQueued(taskId)) {
+            pass = new ArrayList<>();
+            cursor = 0;
+            ticks = interval;
+            taskId = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L).getTaskId();
+        }
+    }
+
+    /**
+     * Unregister a check, stopping the scheduler if there is no check anymore.
+     *
+     * @param check the check
+     */
+    public void unregister(@NotNull final ScanCheck check) {
+        checks.remove(check);
+        if (checks.isEmpty() && taskId > -1) {
+            plugin.getServer().getScheduler().cancelTask(taskId);
+            taskId = -1;
+            pass = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Check if a check is registered.
+     *
+     * @param check the check
+     * @return true if the check is run by the scheduler
+     */
+    public boolean isRegistered(@NotNull final ScanCheck check) {
+        return checks.contains(check);
+    }
+
+    /**
+     * Get the scheduler Bukkit task id.
+     *
+     * @return the task id, -1 if not running
+     */
+    public int getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * Scan the next players of the pass, within the budget.
+     */
+    private void tick() {
+        final long start = System.nanoTime();
+        ticks++;
+
+        // Starting a new pass? Not before the end of the interval
+        if (cursor >= pass.size()) {
+            if (ticks < interval) {
+                return;
+            }
+            pass = new ArrayList<>(plugin.getServer().getOnlinePlayers());
+            cursor = 0;
+            ticks = 1;
+            passCost = 0;
+            if (pass.isEmpty()) {
+                return;
+            }
+        }
+
+        // Players which should be scanned by now, to spread the pass evenly over the interval
+        final int target = (int) Math.min(pass.size(), ((long) pass.size() * ticks + interval - 1) / interval);
+        final long deadline = start + budget;
+        while (cursor < target) {
+            final Player player = pass.get(cursor++);
+            if (player.isOnline()) {
+                final InventorySnapshot snapshot = new InventorySnapshot(player);
+                for (final ScanCheck check : checks) {
+                    check.check(player, snapshot);
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        // Metrics
+        final BanMetrics metrics = plugin.getUtils().getMetrics();
+        passCost += System.nanoTime() - start;
+        metrics.recordScan(BanMetrics.Scan.SLICE, start);
+        if (cursor >= pass.size()) {
+            metrics.getScan(BanMetrics.Scan.PASS).observe(passCost);
+        }
+    }
+}
@@ -19,20 +19,20 @@ package fr.andross.banitem.utils.scanners;
 
 import fr.andross.banitem.BanItem;
 import fr.andross.banitem.BanUtils;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Async scanner to check if players wears a banned item.
- * If a banned item is worn, a next sync task will be run to handle it.
+ * Scanner to check if players wears a banned item.
+ * The players are scanned by the {@link ScanScheduler}, on the main thread.
  *
  * @author Andross
- * @version 3.1.1
+ * @version 3.8
  */
-public final class WearScanner {
+public final class WearScanner implements ScanCheck {
     private final BanItem plugin;
     private final BanUtils utils;
     private boolean enabled;
-    private int taskId = -1;
 
     /**
      * Prepare wear scanner.
@@ -62,16 +62,14 @@ public final class WearScanner {
     public void setEnabled(final boolean enabled) {
         this.enabled = enabled;
         if (enabled) {
-            if (taskId < 0) {
-                taskId = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () ->
-                                plugin.getServer().getOnlinePlayers().forEach(utils::checkPlayerArmors),
-                        16L, 16L).getTaskId();
-            }
+            utils.getScanScheduler().register(this);
         } else {
-            if (taskId > -1) {
-                plugin.getServer().getScheduler().cancelTask(taskId);
-                taskId = -1;
-            }
+            utils.getScanScheduler().unregister(this);
         }
     }
+
+    @Override
+    public void check(@NotNull final Player player, @NotNull final InventorySnapshot snapshot) {
+        utils.checkPlayerArmors(player, snapshot);
+    }
 }
@@ -23,29 +23,32 @@ import fr.andross.banitem.BanUtils;
 import fr.andross.banitem.utils.debug.Debug;
 import fr.andross.banitem.utils.debug.DebugMessage;
 import fr.andross.banitem.utils.list.Listable;
+import fr.andross.banitem.utils.scanners.InventorySnapshot;
+import fr.andross.banitem.utils.scanners.ScanCheck;
+import fr.andross.banitem.utils.scanners.ScanScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
 /**
- * Async scanner to check if players has illegal stacks into their inventories.
- * If an illegal stack is detected, a next sync task will be run to handle it.
+ * Scanner to check if players has illegal stacks into their inventories.
+ * The players are scanned by the {@link ScanScheduler}, on the main thread.
  *
  * @author Andross
- * @version 3.4
+ * @version 3.8
  */
-public final class IllegalStackScanner {
+public final class IllegalStackScanner implements ScanCheck {
     private final BanItem plugin;
     private final BanUtils utils;
     private boolean enabledInConfig = false;
     private boolean enabled = false;
-    private int taskId = -1;
     private final Map<World, Map<Material, IllegalStackItemConfig>> items = new HashMap<>();
     private boolean vanillaMaxStackSize = false;
     private IllegalStackBlockType defaultBlockType;
@@ -190,17 +193,17 @@ public final class IllegalStackScanner {
     public void setEnabled(final boolean enabled) {
         this.enabled = enabled;
         if (enabled) {
-            if (taskId < 0) {
-                taskId = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> Bukkit.getOnlinePlayers().forEach(utils::checkPlayerIllegalStacks), 16L, 16L).getTaskId();
-            }
+            utils.getScanScheduler().register(this);
         } else {
-            if (taskId > -1) {
-                plugin.getServer().getScheduler().cancelTask(taskId);
-                taskId = -1;
-            }
+            utils.getScanScheduler().unregister(this);
         }
     }
 
+    @Override
+    public void check(@NotNull final Player player, @NotNull final InventorySnapshot snapshot) {
+        utils.checkPlayerIllegalStacks(player, snapshot);
+    }
+
     /**
      * Check if the scanner should be enabled (in config).
      *
@@ -221,11 +224,12 @@ public final class IllegalStackScanner {
 
     /**
      * Get the scanner Bukkit Task id, -1 if not running.
+     * The task is the {@link ScanScheduler} one, shared with the other scanners.
      *
      * @return the scanner Bukkit Task id, -1 if not running
      */
     public int getTaskId() {
-        return taskId;
+        return enabled ? utils.getScanScheduler().getTaskId() : -1;
     }
 
     /**
@@ -0,0 +1,148 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.items.meta;
+
+import fr.andross.banitem.items.BannedItem;
+import fr.andross.banitem.items.ItemFacts;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the text matcher, which must give the same results as the comparators it replaces.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+class TextMatcherTest {
+
+    @BeforeAll
+    static void setServer() {
+        // The colors translation reads the server version
+        if (Bukkit.getServer() == null) {
+            final Server server = mock(Server.class);
+            when(server.getBukkitVersion()).thenReturn("1.21-R0.1-SNAPSHOT");
+            when(server.getLogger()).thenReturn(Logger.getLogger("TextMatcherTest"));
+            Bukkit.setServer(server);
+        }
+    }
+
+    @Test
+    void matchesLikeTheComparators() {
+        final List<MetaTypeComparator> comparators = Arrays.asList(
+                new DisplayNameContains("Sword", null),
+                new DisplayNameContains("&cRed", null),
+                new DisplayNameContains("ord", null),
+                new LoreLineContains("Legendary", null),
+                new LoreLineContains("dary", null),
+                new LoreContains(Arrays.asList("Soulbound", "Untradeable"), null),
+                new DisplayNameEqualsRegex("^Magic (Wand|Staff)$", null),
+                new DisplayNameEqualsRegex("[0-9]+", null),
+                new LoreContainsRegex("Level \\d+", null),
+                new LoreContainsRegex("^Owner: ", null));
+
+        assertSameResults(comparators, null, null);
+        assertSameResults(comparators, "Diamond Sword", null);
+        assertSameResults(comparators, "§cRed Sword", Collections.singletonList("Soulbound"));
+        assertSameResults(comparators, "Magic Wand", Arrays.asList("A Legendary wand", "Level 12"));
+        assertSameResults(comparators, "Magic Wand 2", Arrays.asList("Owner: Steve", "Untradeable"));
+        assertSameResults(comparators, null, Arrays.asList("legendary", "Soulbound item", "Owner Steve"));
+        assertSameResults(comparators, "", Collections.emptyList());
+    }
+
+    @Test
+    void matchesRegexesThatCanNotBeCombined() {
+        // Back references and flags are not combined in one pattern
+        final List<MetaTypeComparator> comparators = Arrays.asList(
+                new DisplayNameEqualsRegex("(a)\\1", null),
+                new DisplayNameEqualsRegex("(?i)magic", null),
+                new LoreContainsRegex("(x)\\1", null),
+                new LoreContainsRegex("Level", null));
+
+        assertSameResults(comparators, "aa MAGIC", Collections.singletonList("xx"));
+        assertSameResults(comparators, "ab", Arrays.asList("x", "Level 1"));
+        assertSameResults(comparators, "Magic", null);
+    }
+
+    @Test
+    void ignoresOtherComparators() {
+        final MetaTypeComparator other = new MetaTypeComparator(null, null) {
+            @Override
+            public boolean matches(@NotNull final ItemFacts facts) {
+                return true;
+            }
+        };
+        final MetaTypeComparator name = new DisplayNameContains("Sword", null);
+        final TextMatcher matcher = new TextMatcher(Arrays.asList(other, name));
+        assertEquals(1, matcher.size());
+
+        final ItemFacts facts = facts("Sword", null);
+        matcher.match(facts);
+        assertNull(facts.getKnownMatch(other));
+        assertEquals(Boolean.TRUE, facts.getKnownMatch(name));
+    }
+
+    /**
+     * Check that the text matcher gives the same result as each comparator.
+     *
+     * @param comparators the comparators
+     * @param displayName the display name of the item, or null for none
+     * @param lore        the lore of the item, or null for none
+     */
+    private static void assertSameResults(@NotNull final List<MetaTypeComparator> comparators,
+                                          @Nullable final String displayName,
+                                          @Nullable final List<String> lore) {
+        final ItemFacts facts = facts(displayName, lore);
+        new TextMatcher(comparators).match(facts);
+
+        final List<Boolean> expected = new ArrayList<>();
+        final List<Boolean> actual = new ArrayList<>();
+        for (final MetaTypeComparator c : comparators) {
+            expected.add(c.matches(facts(displayName, lore)));
+            actual.add(facts.getKnownMatch(c));
+        }
+        assertEquals(expected, actual, "display name: " + displayName + ", lore: " + lore);
+    }
+
+    @NotNull
+    private static ItemFacts facts(@Nullable final String displayName, @Nullable final List<String> lore) {
+        final ItemMeta meta = mock(ItemMeta.class);
+        when(meta.hasDisplayName()).thenReturn(displayName != null);
+        when(meta.getDisplayName()).thenReturn(displayName);
+        when(meta.hasLore()).thenReturn(lore != null);
+        when(meta.getLore()).thenReturn(lore);
+        final BannedItem item = mock(BannedItem.class);
+        when(item.getItemMeta()).thenReturn(meta);
+        return new ItemFacts(item);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the Aho-Corasick automaton.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+class AhoCorasickTest {
+
+    @Test
+    void findsOverlappingNeedles() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        for (final String needle : Arrays.asList("he", "she", "his", "hers")) {
+            automaton.add(needle, needle);
+        }
+        assertEquals(Arrays.asList("she", "he", "hers"), search(automaton.build(), "ushers"));
+        assertEquals(Collections.singletonList("his"), search(automaton, "this"));
+        assertEquals(Collections.emptyList(), search(automaton, "nothing"));
+    }
+
+    @Test
+    void findsNeedlesAfterAFailure() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        automaton.add("abcd", "abcd");
+        automaton.add("bce", "bce");
+        automaton.add("c", "c");
+        // "abc" fails on 'e', falling back to "bc"
+        assertEquals(Arrays.asList("c", "bce"), search(automaton.build(), "abce"));
+    }
+
+    @Test
+    void reportsEachOccurrence() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        automaton.add("aa", "aa");
+        assertEquals(Arrays.asList("aa", "aa", "aa"), search(automaton.build(), "aaaa"));
+    }
+
+    @Test
+    void reportsAllValuesOfANeedle() {
+        final AhoCorasick<Integer> automaton = new AhoCorasick<>();
+        automaton.add("vip", 1);
+        automaton.add("vip", 2);
+        final List<Integer> found = new ArrayList<>();
+        automaton.build().search("[vip] sword", found::add);
+        assertEquals(Arrays.asList(1, 2), found);
+    }
+
+    @Test
+    void reportsEmptyNeedleOnce() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        automaton.add("", "empty");
+        automaton.add("ab", "ab");
+        assertFalse(automaton.isEmpty());
+        assertEquals(Arrays.asList("empty", "ab"), search(automaton.build(), "xxabxx"));
+        assertEquals(Collections.singletonList("empty"), search(automaton, ""));
+    }
+
+    @Test
+    void isCaseSensitive() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        automaton.add("Sword", "Sword");
+        assertEquals(Collections.emptyList(), search(automaton.build(), "sword"));
+    }
+
+    @Test
+    void emptyAutomaton() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        assertTrue(automaton.isEmpty());
+        assertEquals(Collections.emptyList(), search(automaton, "text"));
+    }
+
+    @Test
+    void cannotAddOnceBuilt() {
+        final AhoCorasick<String> automaton = new AhoCorasick<>();
+        automaton.add("a", "a");
+        automaton.build();
+        assertThrows(IllegalStateException.class, () -> automaton.add("b", "b"));
+    }
+
+    private static <T> List<T> search(final AhoCorasick<T> automaton, final String text) {
+        final List<T> found = new ArrayList<>();
+        automaton.search(text, found::add);
+        return found;
+    }
+}
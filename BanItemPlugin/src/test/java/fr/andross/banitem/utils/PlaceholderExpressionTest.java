@@ -0,0 +1,177 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2021 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your action) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the placeholder condition expressions.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+class PlaceholderExpressionTest {
+
+    @Test
+    void andBindsTighterThanOr() {
+        // true || (false && false), but ((true || false) && false) if evaluated left to right
+        assertTrue(evaluate("a = a || b = c && d = e"));
+        assertFalse(evaluate("(a = a || b = c) && d = e"));
+        assertTrue(evaluate("a = b && c = d || e = e"));
+    }
+
+    @Test
+    void notAndParentheses() {
+        assertFalse(evaluate("!(a = a)"));
+        assertTrue(evaluate("!a = b"));
+        assertTrue(evaluate("a != b"));
+        assertTrue(evaluate("!(a = b || c = d) && e = e"));
+    }
+
+    @Test
+    void numericComparisons() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("%balance%", "1500.5");
+        values.put("%level%", "10.0");
+        assertTrue(evaluate("%balance% > 1000", values));
+        assertFalse(evaluate("%balance% <= 1000", values));
+        assertTrue(evaluate("%level% = 10", values));
+        assertTrue(evaluate("%level% >= 10 && %level% < 11", values));
+        assertTrue(evaluate("9 < 10"));
+    }
+
+    @Test
+    void stringComparisons() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("%rank%", "vip");
+        assertTrue(evaluate("%rank% == vip", values));
+        assertFalse(evaluate("%rank% = VIP", values));
+        assertTrue(evaluate("%rank% != mvp", values));
+        assertTrue(evaluate("%unknown% = ''", values));
+    }
+
+    @Test
+    void shortCircuits() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("%a%", "1");
+        values.put("%b%", "2");
+        final List<String> resolved = new ArrayList<>();
+        final Function<String, String> resolver = p -> {
+            resolved.add(p);
+            return values.get(p);
+        };
+
+        assertTrue(new PlaceholderExpression("%a% = 1 || %b% = 2").evaluate(resolver));
+        assertEquals(1, resolved.size());
+
+        resolved.clear();
+        assertFalse(new PlaceholderExpression("%a% = 0 && %b% = 2").evaluate(resolver));
+        assertEquals(1, resolved.size());
+    }
+
+    @Test
+    void resolvesEachPlaceholderOnce() {
+        final List<String> resolved = new ArrayList<>();
+        final PlaceholderExpression expression = new PlaceholderExpression("%a% > 1 && %a% < 10 && %a% != 5");
+        assertTrue(expression.evaluate(p -> {
+            resolved.add(p);
+            return "3";
+        }));
+        assertEquals(1, resolved.size());
+
+        // Not kept between evaluations
+        assertFalse(expression.evaluate(p -> "5"));
+    }
+
+    @Test
+    void quotedStrings() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("%rank%", "vip member");
+        values.put("%title%", "a && b || c");
+        assertTrue(evaluate("%rank% = 'vip member'", values));
+        assertTrue(evaluate("%rank% = \"vip member\"", values));
+        assertTrue(evaluate("%title% = 'a && b || c'", values));
+        assertTrue(evaluate("'(x)' = '(x)'"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("%rank% = 'vip"));
+    }
+
+    @Test
+    void regexFind() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("%name%", "Stephen");
+        assertTrue(evaluate("%name% ~ '^Ste(ve|ph)'", values));
+        assertFalse(evaluate("%name% ~ '^Steve$'", values));
+        assertTrue(evaluate("%name% ~ ph", values));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("%name% ~ '('"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("%name% ~ %other%"));
+    }
+
+    @Test
+    void invalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("(a = a"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("%a = 1"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("a = b c"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("a"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderExpression("a = b ||"));
+    }
+
+    @Test
+    void detectsLegacySyntax() {
+        assertFalse(PlaceholderExpression.isExpression("%rank%=vip"));
+        assertFalse(PlaceholderExpression.isExpression("%rank%=#vip||mvp"));
+        assertFalse(PlaceholderExpression.isExpression("%rank%=#^(vip|mvp)$"));
+        assertFalse(PlaceholderExpression.isExpression("%rank%=#a&&b"));
+        assertFalse(PlaceholderExpression.isExpression("%rank%=vip||mvp"));
+
+        assertTrue(PlaceholderExpression.isExpression("%rank% = vip"));
+        assertTrue(PlaceholderExpression.isExpression("%rank%==vip"));
+        assertTrue(PlaceholderExpression.isExpression("%a%=1 && %b%=2"));
+        assertTrue(PlaceholderExpression.isExpression("%a%=1&&%b%=2"));
+        assertTrue(PlaceholderExpression.isExpression("%balance%>1000"));
+        assertTrue(PlaceholderExpression.isExpression("%a%="));
+    }
+
+    @Test
+    void legacyRegexIsNotParsedAsExpression() {
+        assertDoesNotThrow(() -> new PlaceholderApiCondition("%rank%=#vip||mvp"));
+        assertDoesNotThrow(() -> new PlaceholderApiCondition("%rank%=vip"));
+        assertDoesNotThrow(() -> new PlaceholderApiCondition("%a% = 1 && %b% != 2"));
+        assertThrows(IllegalArgumentException.class, () -> new PlaceholderApiCondition("%rank%=#("));
+    }
+
+    private static boolean evaluate(@NotNull final String expression) {
+        return evaluate(expression, new HashMap<>());
+    }
+
+    private static boolean evaluate(@NotNull final String expression, @NotNull final Map<String, String> values) {
+        return new PlaceholderExpression(expression).evaluate(values::get);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2020 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.hooks;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * A provider of the regions used by the region data.
+ * Regions are identified by their world and name, interned into the ids of {@link #getIds()}.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public interface IRegionProvider {
+
+    /**
+     * Get the ids of the regions of this provider.
+     *
+     * @return the regions ids
+     */
+    @NotNull
+    RegionIds getIds();
+
+    /**
+     * Get the names of all the regions of this world.
+     *
+     * @param world the world
+     * @return the regions names
+     */
+    @NotNull
+    Collection<String> getRegionNames(@NotNull final World world);
+
+    /**
+     * Check if the region exists in this world.
+     *
+     * @param world the world
+     * @param name  the region name
+     * @return the region name as identified by the provider, or null if the region does not exist
+     */
+    @Nullable
+    String getRegionName(@NotNull final World world, @NotNull final String name);
+
+    /**
+     * Add the ids of the regions at this location to the bitset.
+     *
+     * @param loc      the location
+     * @param standing the bitset to fill
+     */
+    void addStandingRegions(@NotNull final Location loc, @NotNull final BitSet standing);
+
+    /**
+     * Get the bounding box of the region.
+     *
+     * @param world the world
+     * @param name  the region name
+     * @return the bounds <i>(min x, y, z, max x, y, z)</i>, or null if the region does not exist
+     */
+    @Nullable
+    int[] getBounds(@NotNull final World world, @NotNull final String name);
+
+    /**
+     * Check if the region is exactly its bounding box.
+     *
+     * @param world the world
+     * @param name  the region name
+     * @return true if the region is a cuboid
+     */
+    boolean isCuboid(@NotNull final World world, @NotNull final String name);
+}
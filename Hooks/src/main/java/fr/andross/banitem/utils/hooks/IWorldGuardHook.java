@@ -37,4 +37,7 @@ public interface IWorldGuardHook {
     @NotNull
     Set<ProtectedRegion> getStandingRegions(@NotNull final Location loc);
 
+    @NotNull
+    int[] getBounds(@NotNull final ProtectedRegion region);
+
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2020 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.hooks;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The cuboid regions defined in the BanItem configuration, without WorldGuard.
+ * <p>Regions are bucketed per chunk, in an open addressing table, so a point query does not allocate.
+ * Regions spanning more than {@link #MAX_CHUNKS} chunks are checked for any location of their world.</p>
+ * <p>Regions must all be added before the provider is used.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class NativeRegionProvider implements IRegionProvider {
+    private static final int MAX_CHUNKS = 4096;
+    private static final Cuboid[] NONE = new Cuboid[0];
+    private final Map<World, WorldRegions> worlds = new HashMap<>();
+    private final RegionIds ids = new RegionIds();
+
+    /**
+     * Add a cuboid region.
+     * The region name is stored in lower case, as the WorldGuard regions.
+     *
+     * @param world  the world of the region
+     * @param name   the region name
+     * @param corner the first corner <i>(x, y, z)</i>
+     * @param other  the opposite corner <i>(x, y, z)</i>
+     * @return false if a region with this name already exists in this world, otherwise true
+     */
+    public boolean addRegion(@NotNull final World world, @NotNull final String name, @NotNull final int[] corner, @NotNull final int[] other) {
+        final String lowerName = name.toLowerCase(Locale.ROOT);
+        final WorldRegions regions = worlds.computeIfAbsent(world, w -> new WorldRegions());
+        if (regions.names.containsKey(lowerName)) {
+            return false;
+        }
+
+        final Cuboid c = new Cuboid(ids.getId(world, lowerName),
+                Math.min(corner[0], other[0]), Math.min(corner[1], other[1]), Math.min(corner[2], other[2]),
+                Math.max(corner[0], other[0]), Math.max(corner[1], other[1]), Math.max(corner[2], other[2]));
+        regions.names.put(lowerName, c);
+
+        final int minCX = c.minX >> 4, maxCX = c.maxX >> 4, minCZ = c.minZ >> 4, maxCZ = c.maxZ >> 4;
+        if ((long) (maxCX - minCX + 1) * (maxCZ - minCZ + 1) > MAX_CHUNKS) {
+            regions.large = append(regions.large, c);
+            return true;
+        }
+        for (int x = minCX; x <= maxCX; x++) {
+            for (int z = minCZ; z <= maxCZ; z++) {
+                regions.grid.add(key(x, z), c);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the amount of regions.
+     *
+     * @return the amount of regions, in all worlds
+     */
+    public int size() {
+        int size = 0;
+        for (final WorldRegions regions : worlds.values()) {
+            size += regions.names.size();
+        }
+        return size;
+    }
+
+    @NotNull
+    @Override
+    public RegionIds getIds() {
+        return ids;
+    }
+
+    @NotNull
+    @Override
+    public Collection<String> getRegionNames(@NotNull final World world) {
+        final WorldRegions regions = worlds.get(world);
+        return regions == null ? Collections.emptyList() : Collections.unmodifiableSet(regions.names.keySet());
+    }
+
+    @Nullable
+    @Override
+    public String getRegionName(@NotNull final World world, @NotNull final String name) {
+        final WorldRegions regions = worlds.get(world);
+        final String lowerName = name.toLowerCase(Locale.ROOT);
+        return regions != null && regions.names.containsKey(lowerName) ? lowerName : null;
+    }
+
+    @Override
+    public void addStandingRegions(@NotNull final Location loc, @NotNull final BitSet standing) {
+        final WorldRegions regions = worlds.get(loc.getWorld());
+        if (regions == null) {
+            return;
+        }
+        final int x = loc.getBlockX(), y = loc.getBlockY(), z = loc.getBlockZ();
+        for (final Cuboid c : regions.grid.get(key(x >> 4, z >> 4))) {
+            if (c.contains(x, y, z)) {
+                standing.set(c.id);
+            }
+        }
+        for (final Cuboid c : regions.large) {
+            if (c.contains(x, y, z)) {
+                standing.set(c.id);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public int[] getBounds(@NotNull final World world, @NotNull final String name) {
+        final WorldRegions regions = worlds.get(world);
+        final Cuboid c = regions == null ? null : regions.names.get(name.toLowerCase(Locale.ROOT));
+        return c == null ? null : new int[]{c.minX, c.minY, c.minZ, c.maxX, c.maxY, c.maxZ};
+    }
+
+    @Override
+    public boolean isCuboid(@NotNull final World world, @NotNull final String name) {
+        return true;
+    }
+
+    /**
+     * Get the key of a chunk.
+     *
+     * @param chunkX the chunk x
+     * @param chunkZ the chunk z
+     * @return the chunk key
+     */
+    private static long key(final int chunkX, final int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Copy the array with the cuboid appended.
+     *
+     * @param array the array
+     * @param c     the cuboid to append
+     * @return the new array
+     */
+    @NotNull
+    private static Cuboid[] append(@NotNull final Cuboid[] array, @NotNull final Cuboid c) {
+        final Cuboid[] newArray = Arrays.copyOf(array, array.length + 1);
+        newArray[array.length] = c;
+        return newArray;
+    }
+
+    /**
+     * The regions of a world.
+     */
+    private static final class WorldRegions {
+        private final Map<String, Cuboid> names = new LinkedHashMap<>();
+        private final ChunkGrid grid = new ChunkGrid();
+        private Cuboid[] large = NONE;
+    }
+
+    /**
+     * An open addressing table of the regions per chunk key.
+     */
+    private static final class ChunkGrid {
+        private long[] keys = new long[64];
+        private Cuboid[][] values = new Cuboid[64][];
+        private int size;
+
+        @NotNull
+        private Cuboid[] get(final long key) {
+            final int mask = keys.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return NONE;
+        }
+
+        private void add(final long key, @NotNull final Cuboid c) {
+            final int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = append(values[i], c);
+                    return;
+                }
+            }
+            keys[i] = key;
+            values[i] = new Cuboid[]{c};
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        private void resize() {
+            final long[] oldKeys = keys;
+            final Cuboid[][] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Cuboid[oldKeys.length * 2][];
+            final int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = slot(oldKeys[j], mask);
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int slot(final long key, final int mask) {
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * A cuboid region.
+     */
+    private static final class Cuboid {
+        private final int id;
+        private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+        private Cuboid(final int id, final int minX, final int minY, final int minZ, final int maxX, final int maxY, final int maxZ) {
+            this.id = id;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+
+        private boolean contains(final int x, final int y, final int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2020 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.hooks;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the bounds of the relevant regions, per chunk.
+ * <p>It is used to know if a move changes the set of relevant regions a player stands in, without
+ * querying the regions provider: cuboid regions are tested with their bounds, and only the other
+ * regions need a provider query. A move between chunks without any relevant region is
+ * skipped entirely.</p>
+ * <p>Regions spanning more than {@link #MAX_CHUNKS} chunks are not indexed per chunk, but checked for any location of their world.</p>
+ * <p>The index of a world is built again after a delay, to follow the regions moved or removed
+ * without any command <i>(ex. by other plugins)</i>. Only the relevant regions are looked up,
+ * by their ids, so the cost of a build does not depend on the amount of regions of the world.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class RegionBoundaryIndex {
+    private static final int MAX_CHUNKS = 4096;
+    private static final Bounds[] NONE = new Bounds[0];
+    private final IRegionProvider provider;
+    private final BitSet relevant;
+    private final long refresh;
+    private final Map<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an index of the relevant regions, built lazily per world.
+     *
+     * @param provider the regions provider
+     * @param relevant the ids of the relevant regions, see {@link IRegionProvider#getIds()}
+     * @param refresh  the delay in milliseconds before the index of a world is built again
+     */
+    public RegionBoundaryIndex(@NotNull final IRegionProvider provider, @NotNull final BitSet relevant, final long refresh) {
+        this.provider = provider;
+        this.relevant = relevant;
+        this.refresh = refresh;
+    }
+
+    /**
+     * Check if the set of relevant regions differs between these two locations.
+     *
+     * @param from the first location
+     * @param to   the second location
+     * @return true if the relevant regions at the locations differ
+     */
+    public boolean hasChanged(@NotNull final Location from, @NotNull final Location to) {
+        if (from.getWorld() == null || to.getWorld() == null) {
+            return false;
+        }
+        final WorldIndex fromIndex = getIndex(from.getWorld());
+        final WorldIndex toIndex = from.getWorld() == to.getWorld() ? fromIndex : getIndex(to.getWorld());
+        final Bounds[] fromBounds = fromIndex.get(from);
+        final Bounds[] toBounds = toIndex.get(to);
+
+        // No relevant region around
+        if (fromBounds.length == 0 && toBounds.length == 0 && fromIndex.large.length == 0 && toIndex.large.length == 0) {
+            return false;
+        }
+        return !getRegions(from, fromBounds, fromIndex.large).equals(getRegions(to, toBounds, toIndex.large));
+    }
+
+    /**
+     * Get the ids of the relevant regions at this location.
+     *
+     * @param loc    the location
+     * @param bounds the regions indexed in the chunk of the location
+     * @param large  the large regions of the world
+     * @return a bitset of the relevant regions ids
+     */
+    @NotNull
+    private BitSet getRegions(@NotNull final Location loc, @NotNull final Bounds[] bounds, @NotNull final Bounds[] large) {
+        final BitSet ids = new BitSet();
+        BitSet standing = null;
+        for (int i = 0; i < bounds.length + large.length; i++) {
+            final Bounds b = i < bounds.length ? bounds[i] : large[i - bounds.length];
+            if (!b.contains(loc)) {
+                continue;
+            }
+            if (b.cuboid) {
+                ids.set(b.id);
+            } else {
+                // Not a cuboid: asking the provider, once
+                if (standing == null) {
+                    standing = new BitSet();
+                    provider.addStandingRegions(loc, standing);
+                }
+                if (standing.get(b.id)) {
+                    ids.set(b.id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Get the index of this world, building it if missing or expired.
+     *
+     * @param world the world
+     * @return the index of the world
+     */
+    @NotNull
+    private WorldIndex getIndex(@NotNull final World world) {
+        final long now = System.currentTimeMillis();
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null || index.expires < now) {
+            index = build(world, now + refresh);
+            worlds.put(world.getUID(), index);
+        }
+        return index;
+    }
+
+    /**
+     * Build the index of this world.
+     *
+     * @param world   the world
+     * @param expires when the index must be built again
+     * @return the index of the world
+     */
+    @NotNull
+    private WorldIndex build(@NotNull final World world, final long expires) {
+        final Map<Long, List<Bounds>> chunks = new HashMap<>();
+        final List<Bounds> large = new ArrayList<>();
+        final RegionIds ids = provider.getIds();
+        for (int id = relevant.nextSetBit(0); id >= 0; id = relevant.nextSetBit(id + 1)) {
+            final String region = ids.getRegionName(world, id);
+            final int[] bounds = region == null ? null : provider.getBounds(world, region);
+            if (bounds == null) {
+                continue;
+            }
+            final Bounds b = new Bounds(id, provider.isCuboid(world, region), bounds);
+            final int minCX = b.minX >> 4, maxCX = b.maxX >> 4, minCZ = b.minZ >> 4, maxCZ = b.maxZ >> 4;
+            if ((long) (maxCX - minCX + 1) * (maxCZ - minCZ + 1) > MAX_CHUNKS) {
+                large.add(b);
+                continue;
+            }
+            for (int x = minCX; x <= maxCX; x++) {
+                for (int z = minCZ; z <= maxCZ; z++) {
+                    chunks.computeIfAbsent(key(x, z), k -> new ArrayList<>()).add(b);
+                }
+            }
+        }
+
+        final Map<Long, Bounds[]> index = new HashMap<>();
+        chunks.forEach((k, v) -> index.put(k, v.toArray(NONE)));
+        return new WorldIndex(index, large.toArray(NONE), expires);
+    }
+
+    /**
+     * Get the key of a chunk.
+     *
+     * @param chunkX the chunk x
+     * @param chunkZ the chunk z
+     * @return the chunk key
+     */
+    private static long key(final int chunkX, final int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The indexed regions of a world.
+     */
+    private static final class WorldIndex {
+        private final Map<Long, Bounds[]> chunks;
+        private final Bounds[] large;
+        private final long expires;
+
+        private WorldIndex(@NotNull final Map<Long, Bounds[]> chunks, @NotNull final Bounds[] large, final long expires) {
+            this.chunks = chunks;
+            this.large = large;
+            this.expires = expires;
+        }
+
+        @NotNull
+        private Bounds[] get(@NotNull final Location loc) {
+            final Bounds[] bounds = chunks.get(key(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+            return bounds == null ? NONE : bounds;
+        }
+    }
+
+    /**
+     * The bounding box of a region.
+     */
+    private static final class Bounds {
+        private final int id;
+        private final boolean cuboid;
+        private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+        private Bounds(final int id, final boolean cuboid, @NotNull final int[] bounds) {
+            this.id = id;
+            this.cuboid = cuboid;
+            this.minX = bounds[0];
+            this.minY = bounds[1];
+            this.minZ = bounds[2];
+            this.maxX = bounds[3];
+            this.maxY = bounds[4];
+            this.maxZ = bounds[5];
+        }
+
+        private boolean contains(@Nullable final Location loc) {
+            if (loc == null) {
+                return false;
+            }
+            final int x = loc.getBlockX(), y = loc.getBlockY(), z = loc.getBlockZ();
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+    }
+}
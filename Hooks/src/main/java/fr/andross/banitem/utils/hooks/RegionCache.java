@@ -0,0 +1,179 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2020 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.hooks;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the regions where the players are standing, per block position.
+ * <p>Regions are represented as bitsets of region ids, interned by world and region name by the provider
+ * <i>(see {@link RegionIds})</i>, so the configured regions stay valid after a regions reload
+ * and a membership test is a bitwise AND.</p>
+ * <p>A cached entry is used while the player stays on the same block, until it is invalidated
+ * or after a short delay, to follow the regions changes.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class RegionCache {
+    private static final long REFRESH = 1000L;
+    private final IRegionProvider provider;
+    private final Map<UUID, Entry> players = new ConcurrentHashMap<>();
+    private volatile long generation;
+    private volatile BitSet relevant = new BitSet();
+    private volatile RegionBoundaryIndex boundaryIndex;
+
+    /**
+     * Creates a region cache using this provider.
+     *
+     * @param provider the regions provider
+     */
+    public RegionCache(@NotNull final IRegionProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Get the regions provider.
+     *
+     * @return the regions provider
+     */
+    @NotNull
+    public IRegionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Get the regions at this location.
+     * The returned bitset must not be modified.
+     *
+     * @param player the player standing at this location, or null to not use the cache
+     * @param loc    the location
+     * @return a bitset containing the ids of the regions at this location
+     */
+    @NotNull
+    public BitSet getStandingRegions(@Nullable final UUID player, @NotNull final Location loc) {
+        final World world = loc.getWorld();
+        if (world == null) {
+            return new BitSet();
+        }
+        if (player == null) {
+            final BitSet regions = new BitSet();
+            provider.addStandingRegions(loc, regions);
+            return regions;
+        }
+
+        final long now = System.currentTimeMillis();
+        final Entry entry = players.get(player);
+        if (entry != null && entry.generation == generation && entry.expires > now && entry.isAt(world, loc)) {
+            return entry.regions;
+        }
+
+        final BitSet regions = new BitSet();
+        provider.addStandingRegions(loc, regions);
+        final Entry newEntry = new Entry(world, loc, generation, now + REFRESH, regions);
+        players.put(player, newEntry);
+        return newEntry.regions;
+    }
+
+    /**
+     * Set the regions used by the rules, used to detect the relevant regions changes.
+     *
+     * @param relevant the ids of the regions used
+     */
+    public void setRelevantRegions(@NotNull final BitSet relevant) {
+        this.relevant = relevant;
+        this.boundaryIndex = null;
+    }
+
+    /**
+     * Check if the set of relevant regions differs between these two locations.
+     *
+     * @param from the first location
+     * @param to   the second location
+     * @return true if the relevant regions at the locations differ
+     * @see RegionBoundaryIndex
+     */
+    public boolean hasRelevantChange(@NotNull final Location from, @NotNull final Location to) {
+        RegionBoundaryIndex index = boundaryIndex;
+        if (index == null) {
+            index = new RegionBoundaryIndex(provider, relevant, REFRESH);
+            boundaryIndex = index;
+        }
+        return index.hasChanged(from, to);
+    }
+
+    /**
+     * Invalidate the cached regions of the player.
+     *
+     * @param player the player uuid
+     */
+    public void invalidate(@NotNull final UUID player) {
+        players.remove(player);
+    }
+
+    /**
+     * Invalidate all the cached regions, when the regions have changed.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        players.clear();
+        boundaryIndex = null;
+    }
+
+    /**
+     * Get the amount of players cached.
+     *
+     * @return the amount of players cached
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * The cached regions of a player.
+     */
+    private static final class Entry {
+        private final World world;
+        private final int x, y, z;
+        private final long generation;
+        private final long expires;
+        private final BitSet regions;
+
+        private Entry(@NotNull final World world, @NotNull final Location loc, final long generation, final long expires, @NotNull final BitSet regions) {
+            this.world = world;
+            this.x = loc.getBlockX();
+            this.y = loc.getBlockY();
+            this.z = loc.getBlockZ();
+            this.generation = generation;
+            this.expires = expires;
+            this.regions = regions;
+        }
+
+        private boolean isAt(@NotNull final World world, @NotNull final Location loc) {
+            return this.world == world && x == loc.getBlockX() && y == loc.getBlockY() && z == loc.getBlockZ();
+        }
+    }
+}
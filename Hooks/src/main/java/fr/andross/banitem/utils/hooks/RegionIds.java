@@ -0,0 +1,84 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2020 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.hooks;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ids of the regions, interned by world and region name.
+ * <p>The ids are owned by a {@link IRegionProvider}, which is created on each load:
+ * the removed regions do not keep their ids after a reload.</p>
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class RegionIds {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> keys = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Get the id of the region in this world.
+     *
+     * @param world  the world of the region
+     * @param region the region name
+     * @return the region id, the same while this provider is used
+     */
+    public int getId(@NotNull final World world, @NotNull final String region) {
+        return ids.computeIfAbsent(world.getName() + '\0' + region, k -> {
+            final int id = nextId.getAndIncrement();
+            keys.put(id, k);
+            return id;
+        });
+    }
+
+    /**
+     * Get the id of the region in this world, if it already has one.
+     *
+     * @param world  the world of the region
+     * @param region the region name
+     * @return the region id, or -1 if the region never had an id
+     */
+    public int findId(@NotNull final World world, @NotNull final String region) {
+        final Integer id = ids.get(world.getName() + '\0' + region);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the name of the region of this id, if it is in this world.
+     *
+     * @param world the world
+     * @param id    the region id
+     * @return the region name, or null if the id is unknown or of a region of another world
+     */
+    @Nullable
+    public String getRegionName(@NotNull final World world, final int id) {
+        final String key = keys.get(id);
+        final String worldName = world.getName();
+        if (key == null || key.length() <= worldName.length() || key.charAt(worldName.length()) != '\0' || !key.startsWith(worldName)) {
+            return null;
+        }
+        return key.substring(worldName.length() + 1);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * BanItem - Lightweight, powerful & configurable per world ban item plugin
+ * Copyright (C) 2020 André Sustac
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.andross.banitem.utils.hooks;
+
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The regions provided by WorldGuard.
+ *
+ * @author Andross
+ * @version 3.8
+ */
+public final class WorldGuardRegionProvider implements IRegionProvider {
+    private final IWorldGuardHook hook;
+    private final RegionIds ids = new RegionIds();
+
+    /**
+     * Creates a region provider using this WorldGuard hook.
+     *
+     * @param hook the WorldGuard hook
+     */
+    public WorldGuardRegionProvider(@NotNull final IWorldGuardHook hook) {
+        this.hook = hook;
+    }
+
+    @NotNull
+    @Override
+    public RegionIds getIds() {
+        return ids;
+    }
+
+    @NotNull
+    @Override
+    public Collection<String> getRegionNames(@NotNull final World world) {
+        final List<String> names = new ArrayList<>();
+        for (final ProtectedRegion region : hook.getAllProtectedRegions(world)) {
+            names.add(region.getId());
+        }
+        return names;
+    }
+
+    @Nullable
+    @Override
+    public String getRegionName(@NotNull final World world, @NotNull final String name) {
+        final ProtectedRegion region = hook.getProtectedRegion(world, name);
+        return region == null ? null : region.getId();
+    }
+
+    @Override
+    public void addStandingRegions(@NotNull final Location loc, @NotNull final BitSet standing) {
+        final World world = loc.getWorld();
+        if (world == null) {
+            return;
+        }
+        for (final ProtectedRegion region : hook.getStandingRegions(loc)) {
+            standing.set(ids.getId(world, region.getId()));
+        }
+    }
+
+    @Nullable
+    @Override
+    public int[] getBounds(@NotNull final World world, @NotNull final String name) {
+        final ProtectedRegion region = hook.getProtectedRegion(world, name);
+        return region == null ? null : hook.getBounds(region);
+    }
+
+    @Override
+    public boolean isCuboid(@NotNull final World world, @NotNull final String name) {
+        return hook.getProtectedRegion(world, name) instanceof ProtectedCuboidRegion;
+    }
+
+    /**
+     * Get the WorldGuard hook.
+     *
+     * @return the WorldGuard hook
+     */
+    @NotNull
+    public IWorldGuardHook getHook() {
+        return hook;
+    }
+}
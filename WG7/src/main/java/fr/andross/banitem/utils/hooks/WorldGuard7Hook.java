@@ -76,4 +76,11 @@ public final class WorldGuard7Hook implements IWorldGuardHook {
                 applicableRegionSet.size() == 0 ? protectedRegions : applicableRegionSet.getRegions();
     }
 
+    @NotNull
+    @Override
+    public int[] getBounds(@NotNull final ProtectedRegion region) {
+        return new int[]{region.getMinimumPoint().getBlockX(), region.getMinimumPoint().getBlockY(), region.getMinimumPoint().getBlockZ(),
+                region.getMaximumPoint().getBlockX(), region.getMaximumPoint().getBlockY(), region.getMaximumPoint().getBlockZ()};
+    }
+
 }